@@ -0,0 +1,47 @@
+package livingworld;
+
+/**
+ * Builds the worlds the benchmarks run against, the same way for every run so
+ * numbers from before and after a change can be compared.
+ */
+final class BenchmarkWorlds {
+    static final long SEED = 42;
+
+    private BenchmarkWorlds() {
+    }
+
+    /**
+     * @param board Board size as "WIDTHxHEIGHT"
+     * @param population Creatures to spawn; the world has room for twice as many
+     * @return A world with the creatures and as much food as it holds
+     */
+    static World create(String board, int population) {
+        return create(board, population, 2 * population);
+    }
+
+    /**
+     * @param board Board size as "WIDTHxHEIGHT"
+     * @param population Creatures to spawn
+     * @param capacity Most creatures the world holds
+     * @return A world with the creatures and as much food as it holds
+     */
+    static World create(String board, int population, int capacity) {
+        int[] size = WorldConfig.parseBoardSize(board);
+        World world = new World(WorldConfig.DEFAULT.withBoardSize(size[0], size[1]).withMaxCreatures(capacity), SEED);
+        for (int i = 0; i < population && world.createCreature() != null; i++) {
+            // Spawn until the population or the capacity is reached
+        }
+        fillFood(world);
+        return world;
+    }
+
+    /**
+     * Spawn food until the world holds as much as it can
+     */
+    static void fillFood(World world) {
+        while (world.spawnFood() != null) {
+            // Keep spawning
+        }
+        world.reclaim();
+    }
+}
@@ -0,0 +1,54 @@
+package livingworld;
+
+import java.util.concurrent.TimeUnit;
+import creatures.Animal;
+import creatures.Creature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * World.createCreature and World.addCreature once the world is full, the
+ * path every birth takes when the population has hit its cap. The world's
+ * capacity is set to the population.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacityBenchmark {
+    @Param({"10", "1500", "100000"})
+    public int population;
+
+    @Param({"60x25", "1000x1000"})
+    public String board;
+
+    private World world;
+    private Creature newborn;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create(board, population, population);
+        newborn = new Animal("Newborn");
+    }
+
+    @Benchmark
+    public Creature createCreature() {
+        return world.createCreature();
+    }
+
+    @Benchmark
+    public boolean addCreature() {
+        return world.addCreature(newborn);
+    }
+}
@@ -0,0 +1,53 @@
+package livingworld;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import creatures.Creature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimulationEngine.findNearbyCreatures: collecting every nearby pair for the
+ * encounter phase
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncounterBenchmark {
+    @Param({"10", "1500", "100000"})
+    public int population;
+
+    @Param({"60x25", "1000x1000"})
+    public String board;
+
+    @Param({"3"})
+    public int distance;
+
+    private World world;
+    private List<Creature> nearbyPairs;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create(board, population);
+        nearbyPairs = new ArrayList<>();
+    }
+
+    @Benchmark
+    public List<Creature> findNearbyCreatures() {
+        SimulationEngine.findNearbyCreatures(world, distance, nearbyPairs);
+        return nearbyPairs;
+    }
+}
@@ -0,0 +1,59 @@
+package livingworld;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import creatures.Creature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimulationEngine.feedCreatures: every creature looking for food near it.
+ * The food is topped up before each call, otherwise all but the first call
+ * would find none; topping up is at most the world's food limit of spawns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedingBenchmark {
+    @Param({"10", "1500", "100000"})
+    public int population;
+
+    @Param({"60x25", "1000x1000"})
+    public String board;
+
+    private World world;
+    private SimulationEngine engine;
+    private List<Creature> creatures;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create(board, population);
+        engine = new SimulationEngine(world);
+        creatures = new ArrayList<>(world.getCreatures());
+    }
+
+    @Setup(Level.Invocation)
+    public void refillFood() {
+        BenchmarkWorlds.fillFood(world);
+    }
+
+    @Benchmark
+    public World feedCreatures() {
+        engine.feedCreatures(creatures);
+        return world;
+    }
+}
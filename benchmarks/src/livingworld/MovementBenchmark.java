@@ -0,0 +1,49 @@
+package livingworld;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * World.updatePositions: one movement pass over every creature
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovementBenchmark {
+    @Param({"10", "1500", "100000"})
+    public int population;
+
+    @Param({"60x25", "1000x1000"})
+    public String board;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private World world;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create(board, population);
+        world.setParallelMovement(parallel);
+    }
+
+    @Benchmark
+    public World updatePositions() {
+        world.updatePositions();
+        world.clearChanges();
+        return world;
+    }
+}
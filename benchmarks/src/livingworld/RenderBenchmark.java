@@ -0,0 +1,68 @@
+package livingworld;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WorldVisualizer writing frames to a stream that discards them, so only the
+ * cost of building and encoding a frame is measured
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    private static final List<String> EVENTS = List.of(
+            "Blaze and Ember met!", "Blaze Jr. was born!", "Food spawned in the world!");
+
+    @Param({"10", "1500", "100000"})
+    public int population;
+
+    @Param({"60x25", "1000x1000"})
+    public String board;
+
+    private World world;
+    private WorldVisualizer visualizer;
+    private Frame frame;
+    private int tick;
+
+    @Setup
+    public void setUp() {
+        world = BenchmarkWorlds.create(board, population);
+        visualizer = new WorldVisualizer(OutputStream.nullOutputStream());
+        frame = visualizer.capture(world, 1, 1, 1, EVENTS);
+        tick = 1;
+    }
+
+    /**
+     * Capture and draw with the grid rebuilt from scratch, as after a jump in ticks
+     */
+    @Benchmark
+    public boolean visualize() {
+        tick += 2; // Not the next tick, so nothing is reused from the last capture
+        return visualizer.visualize(world, 1, 1, tick, EVENTS);
+    }
+
+    /**
+     * Only draw an already captured frame in full
+     */
+    @Benchmark
+    public WorldVisualizer render() {
+        visualizer.draw(frame);
+        return visualizer;
+    }
+}
@@ -0,0 +1,51 @@
+package livingworld;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole ticks of SimulationEngine.step, in ticks per second. Each iteration
+ * starts again from a fresh world so the population does not drift away
+ * from the parameter over a long run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+    @Param({"10", "1500", "100000"})
+    public int population;
+
+    @Param({"60x25", "1000x1000"})
+    public String board;
+
+    @Param({"SINGLE", "BATCHED"})
+    public SimulationEngine.EncounterMode encounterMode;
+
+    private SimulationEngine engine;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        engine = new SimulationEngine(BenchmarkWorlds.create(board, population));
+        engine.setEncounterMode(encounterMode);
+    }
+
+    @Benchmark
+    public SimulationEngine step() {
+        engine.step();
+        return engine;
+    }
+}
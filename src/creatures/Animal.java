@@ -1,5 +1,7 @@
 package creatures;
 
+import java.util.random.RandomGenerator;
+
 public class Animal extends Creature {
 
     public Animal(String name) {
@@ -7,16 +9,30 @@ public class Animal extends Creature {
         setSpeciesFromList(0);
     }
 
+    public Animal(String name, RandomGenerator random) {
+        super(name, random);
+        setSpeciesFromList(0);
+    }
+
+    public Animal(int nameId, RandomGenerator random) {
+        super(nameId, random);
+        setSpeciesFromList(0);
+    }
+
+    public Animal(Creature parent, RandomGenerator random) {
+        super(parent, random);
+        setSpeciesFromList(0);
+    }
+
     @Override
-    public Creature reproduce() {
+    public Creature reproduce(RandomGenerator random) {
         if (!isAlive()) {
             return null;
         }
 
-        java.util.Random random = new java.util.Random();
         int randRoll = random.nextInt(0, 100);
-        if (randRoll <= this.replicationChance) {
-            return new Animal(getName() + " Jr.");
+        if (randRoll <= getReplicationChance()) {
+            return new Animal(this, random);
         }
         return null;
 
@@ -0,0 +1,133 @@
+package creatures;
+
+import java.util.Arrays;
+
+/**
+ * Column storage for creature state on the heap. Every attribute lives in
+ * its own primitive array indexed by slot.
+ */
+public class ArrayCreatureStore extends CreatureStore {
+    private int[] x;
+    private int[] y;
+    private int[] health;
+    private int[] hunger;
+    private int[] strength;
+    private int[] replicationChance;
+    private int[] friendliness;
+    private boolean[] alive;
+    private byte[] speciesIndex;
+    private int[] nameId;
+    private int[] id;
+    private int[] generation;
+    private int[] parentId;
+    private long[] version;
+
+    public ArrayCreatureStore(int initialCapacity) {
+        super(initialCapacity);
+        int capacity = getCapacity();
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.health = new int[capacity];
+        this.hunger = new int[capacity];
+        this.strength = new int[capacity];
+        this.replicationChance = new int[capacity];
+        this.friendliness = new int[capacity];
+        this.alive = new boolean[capacity];
+        this.speciesIndex = new byte[capacity];
+        this.nameId = new int[capacity];
+        this.id = new int[capacity];
+        this.generation = new int[capacity];
+        this.parentId = new int[capacity];
+        this.version = new long[capacity];
+    }
+
+    @Override
+    protected void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        health = Arrays.copyOf(health, capacity);
+        hunger = Arrays.copyOf(hunger, capacity);
+        strength = Arrays.copyOf(strength, capacity);
+        replicationChance = Arrays.copyOf(replicationChance, capacity);
+        friendliness = Arrays.copyOf(friendliness, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        speciesIndex = Arrays.copyOf(speciesIndex, capacity);
+        nameId = Arrays.copyOf(nameId, capacity);
+        id = Arrays.copyOf(id, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        parentId = Arrays.copyOf(parentId, capacity);
+        version = Arrays.copyOf(version, capacity);
+    }
+
+    @Override
+    public int getId(int slot) { return id[slot]; }
+    @Override
+    public void setId(int slot, int id) { this.id[slot] = id; }
+
+    @Override
+    public int getX(int slot) { return x[slot]; }
+    @Override
+    public int getY(int slot) { return y[slot]; }
+    @Override
+    public void setPosition(int slot, int x, int y) {
+        this.x[slot] = x;
+        this.y[slot] = y;
+    }
+
+    @Override
+    public int getHealth(int slot) { return health[slot]; }
+    @Override
+    public void setHealth(int slot, int health) { this.health[slot] = health; }
+
+    @Override
+    public int getHunger(int slot) { return hunger[slot]; }
+    @Override
+    public void setHunger(int slot, int hunger) { this.hunger[slot] = hunger; }
+
+    @Override
+    public int getStrength(int slot) { return strength[slot]; }
+    @Override
+    public void setStrength(int slot, int strength) { this.strength[slot] = strength; }
+
+    @Override
+    public int getReplicationChance(int slot) { return replicationChance[slot]; }
+    @Override
+    public void setReplicationChance(int slot, int replicationChance) {
+        this.replicationChance[slot] = replicationChance;
+    }
+
+    @Override
+    public int getFriendliness(int slot) { return friendliness[slot]; }
+    @Override
+    public void setFriendliness(int slot, int friendliness) { this.friendliness[slot] = friendliness; }
+
+    @Override
+    public boolean isAlive(int slot) { return alive[slot]; }
+    @Override
+    public void setAlive(int slot, boolean alive) { this.alive[slot] = alive; }
+
+    @Override
+    public int getSpeciesIndex(int slot) { return speciesIndex[slot]; }
+    @Override
+    public void setSpeciesIndex(int slot, int speciesIndex) { this.speciesIndex[slot] = (byte) speciesIndex; }
+
+    @Override
+    public int getNameId(int slot) { return nameId[slot]; }
+    @Override
+    public void setNameId(int slot, int nameId) { this.nameId[slot] = nameId; }
+
+    @Override
+    public int getGeneration(int slot) { return generation[slot]; }
+    @Override
+    public void setGeneration(int slot, int generation) { this.generation[slot] = generation; }
+
+    @Override
+    public int getParentId(int slot) { return parentId[slot]; }
+    @Override
+    public void setParentId(int slot, int parentId) { this.parentId[slot] = parentId; }
+
+    @Override
+    public long getVersion(int slot) { return version[slot]; }
+    @Override
+    public void setVersion(int slot, long version) { this.version[slot] = version; }
+}
@@ -0,0 +1,58 @@
+package creatures;
+
+/**
+ * Resolves fights to the death without simulating every blow. The fighters
+ * take turns attacking with their full strength, the first creature striking
+ * first, so the number of blows each side needs tells who lands the killing
+ * one. The outcome and final health match trading attack() calls until one
+ * side dies.
+ */
+public final class Combat {
+    public enum Outcome { FIRST_WINS, SECOND_WINS, STALEMATE }
+
+    private Combat() {
+    }
+
+    /**
+     * Fight to the death in constant time
+     * @param first Creature that strikes first each round
+     * @param second Creature that strikes back while it is still alive
+     * @return Who won, or STALEMATE if neither can hurt the other (or one of
+     * them was already dead)
+     */
+    public static Outcome fight(Creature first, Creature second) {
+        if (!first.isAlive() || !second.isAlive()) {
+            return first.isAlive() ? Outcome.FIRST_WINS : second.isAlive() ? Outcome.SECOND_WINS : Outcome.STALEMATE;
+        }
+
+        int firstStrength = first.getStrength();
+        int secondStrength = second.getStrength();
+        int firstHealth = first.getHealth();
+        int secondHealth = second.getHealth();
+
+        // Blows each side needs to land to kill the other
+        long firstBlows = blowsToKill(secondHealth, firstStrength);
+        long secondBlows = blowsToKill(firstHealth, secondStrength);
+
+        if (firstBlows == Long.MAX_VALUE && secondBlows == Long.MAX_VALUE) {
+            return Outcome.STALEMATE; // Both have 0 strength; the fight would never end
+        }
+
+        if (firstBlows <= secondBlows) {
+            // The first creature's killing blow lands before the reply in that round
+            first.takeDamage((int) ((firstBlows - 1) * secondStrength));
+            second.takeDamage(secondHealth);
+            return Outcome.FIRST_WINS;
+        }
+        second.takeDamage((int) (secondBlows * firstStrength));
+        first.takeDamage(firstHealth);
+        return Outcome.SECOND_WINS;
+    }
+
+    private static long blowsToKill(int health, int strength) {
+        if (strength <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return (health + (long) strength - 1) / strength;
+    }
+}
@@ -1,116 +1,377 @@
 package creatures;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public abstract class Creature implements Attack {
-    protected String name;
-    protected String species;
-    protected String[] speciesList = {"Animal", "Monster"};
-    protected int health;
-    protected int hunger;
-    protected int strength;
-    protected int replicationChance;
-    protected int friendliness;
-    protected boolean alive;
-    protected Random random;
-    protected int x;
-    protected int y;
+    protected static final String[] speciesList = {"Animal", "Monster"};
+
+    /**
+     * State of a creature that is not attached to a store
+     */
+    private static final class State {
+        int nameId; // Base name in the NameTable
+        int generation; // 0 for a creature without parents, one more than its parent otherwise
+        int parentId = -1;
+        int speciesIndex = -1;
+        int health;
+        int hunger;
+        int strength;
+        int replicationChance;
+        int friendliness;
+        boolean alive;
+        int x;
+        int y;
+        long version;
+    }
+
+    private int id = -1;
+    private CreatureListener listener;
+
+    // The state is in exactly one place: in state while the creature stands
+    // alone, or in the store's slot once attached. An attached creature is a
+    // view of its slot and state is null, so the heap only holds the view.
+    private State state;
+    private CreatureStore store;
+    private int slot = -1;
 
 
     public Creature(String name) {
-        this.random = new Random();
-        this.name = name;
-        this.health = 100;
-        this.hunger = 0;
-        this.strength = this.random.nextInt(0, 100);
-        this.replicationChance = this.random.nextInt(0, 100); //can the creature replicate
-        this.friendliness = this.random.nextInt(0, 100);
-        this.alive = true;
+        this(name, ThreadLocalRandom.current());
+    }
+
+    /**
+     * @param name Creature name; a name with a " Jr." or " Jr. n" suffix is split into
+     * its base name and generation, see NameTable.parse()
+     * @param random Generator the creature's traits are drawn from; not kept
+     */
+    public Creature(String name, RandomGenerator random) {
+        this(NameTable.parse(name), random);
+    }
+
+    /**
+     * @param nameId Id of the creature's name in the NameTable
+     * @param random Generator the creature's traits are drawn from; not kept
+     */
+    public Creature(int nameId, RandomGenerator random) {
+        this(new int[] {nameId, 0}, random);
+    }
+
+    /**
+     * Offspring of a parent: named after it, one generation on
+     * @param random Generator the creature's traits are drawn from; not kept
+     */
+    public Creature(Creature parent, RandomGenerator random) {
+        this(new int[] {parent.getNameId(), parent.getGeneration() + 1}, random);
+        state.parentId = parent.getId();
+    }
+
+    private Creature(int[] name, RandomGenerator random) {
+        this.state = new State();
+        state.nameId = name[0];
+        state.generation = name[1];
+        state.health = 100;
+        state.hunger = 0;
+        state.strength = random.nextInt(0, 100);
+        state.replicationChance = random.nextInt(0, 100); //can the creature replicate
+        state.friendliness = random.nextInt(0, 100);
+        state.alive = true;
     }
 
     protected void setSpeciesFromList(int index) {
         if (index >= 0 && index < speciesList.length) {
-            this.species = speciesList[index];
+            if (store != null) {
+                store.setSpeciesIndex(slot, index);
+            } else {
+                state.speciesIndex = index;
+            }
+        }
+    }
+
+    public static int getSpeciesCount() { return speciesList.length; }
+
+    public static String getSpeciesName(int index) { return speciesList[index]; }
+
+    /**
+     * Move this creature's state into a slot of the store. From then on the
+     * accessors read and write the store's slot, and the creature itself
+     * keeps only its id, listener and slot.
+     * @param store Store to attach to
+     */
+    public void attachTo(CreatureStore store) {
+        if (this.store != null) {
+            return;
+        }
+        int newSlot = store.allocate(this);
+        State s = state;
+        store.setId(newSlot, id);
+        store.setPosition(newSlot, s.x, s.y);
+        store.setHealth(newSlot, s.health);
+        store.setHunger(newSlot, s.hunger);
+        store.setStrength(newSlot, s.strength);
+        store.setReplicationChance(newSlot, s.replicationChance);
+        store.setFriendliness(newSlot, s.friendliness);
+        store.setAlive(newSlot, s.alive);
+        store.setSpeciesIndex(newSlot, s.speciesIndex);
+        store.setNameId(newSlot, s.nameId);
+        store.setGeneration(newSlot, s.generation);
+        store.setParentId(newSlot, s.parentId);
+        store.setVersion(newSlot, s.version);
+        this.store = store;
+        this.slot = newSlot;
+        this.state = null;
+    }
+
+    /**
+     * Copy this creature's state back out of its store slot so the slot can be
+     * reused. Called by the store when the slot is released.
+     */
+    void detach() {
+        if (store == null) {
+            return;
+        }
+        State s = new State();
+        s.x = store.getX(slot);
+        s.y = store.getY(slot);
+        s.health = store.getHealth(slot);
+        s.hunger = store.getHunger(slot);
+        s.strength = store.getStrength(slot);
+        s.replicationChance = store.getReplicationChance(slot);
+        s.friendliness = store.getFriendliness(slot);
+        s.alive = store.isAlive(slot);
+        s.speciesIndex = store.getSpeciesIndex(slot);
+        s.nameId = store.getNameId(slot);
+        s.generation = store.getGeneration(slot);
+        s.parentId = store.getParentId(slot);
+        s.version = store.getVersion(slot);
+        this.state = s;
+        this.store = null;
+        this.slot = -1;
+    }
+
+    public int getSlot() { return slot; }
+
+    /**
+     * @return Id assigned by the world when the creature was added; stays the
+     * same for the creature's whole life, or -1 if it was never added
+     */
+    public int getId() { return id; }
+
+    public void setId(int id) {
+        this.id = id;
+        if (store != null) {
+            store.setId(slot, id);
         }
     }
 
-    public String getName() { return name; }
+    /**
+     * @return The full name, put together from the base name and generation on each call
+     */
+    public String getName() { return NameTable.format(getNameId(), getGeneration()); }
 
+    /**
+     * @param name Full name, split as by NameTable.parse()
+     */
     public void setName(String name) {
-        this.name = name;
+        int[] parsed = NameTable.parse(name);
+        if (store != null) {
+            store.setNameId(slot, parsed[0]);
+            store.setGeneration(slot, parsed[1]);
+        } else {
+            state.nameId = parsed[0];
+            state.generation = parsed[1];
+        }
+        changed();
+    }
+
+    public int getNameId() { return store != null ? store.getNameId(slot) : state.nameId; }
+
+    public int getGeneration() { return store != null ? store.getGeneration(slot) : state.generation; }
+
+    public void setGeneration(int generation) {
+        if (store != null) {
+            store.setGeneration(slot, generation);
+        } else {
+            state.generation = generation;
+        }
     }
 
-    public int getHealth() { return health; }
+    /**
+     * @return Id of the creature whose offspring this is, or -1 for a creature without parents
+     */
+    public int getParentId() { return store != null ? store.getParentId(slot) : state.parentId; }
+
+    public void setParentId(int parentId) {
+        if (store != null) {
+            store.setParentId(slot, parentId);
+        } else {
+            state.parentId = parentId;
+        }
+    }
+
+    public int getHealth() { return store != null ? store.getHealth(slot) : state.health; }
 
     public void setHealth(int health) {
-        this.health = health;
+        if (store != null) {
+            store.setHealth(slot, health);
+        } else {
+            state.health = health;
+        }
+        changed();
     }
 
-    public int getHunger() { return hunger; }
+    public int getHunger() { return store != null ? store.getHunger(slot) : state.hunger; }
 
     public void setHunger(int hunger) {
-        this.hunger = hunger;
+        if (store != null) {
+            store.setHunger(slot, hunger);
+        } else {
+            state.hunger = hunger;
+        }
+        changed();
     }
 
-    public int getStrength() { return strength; }
+    public int getStrength() { return store != null ? store.getStrength(slot) : state.strength; }
 
     public void setStrength(int strength) {
-        this.strength = strength;
+        if (store != null) {
+            store.setStrength(slot, strength);
+        } else {
+            state.strength = strength;
+        }
+        changed();
+    }
+
+    public int getReplicationChance() {
+        return store != null ? store.getReplicationChance(slot) : state.replicationChance;
     }
 
-    public int getReplicationChance() { return replicationChance; }
+    public void setReplicationChance(int replicationChance) {
+        if (store != null) {
+            store.setReplicationChance(slot, replicationChance);
+        } else {
+            state.replicationChance = replicationChance;
+        }
+        changed();
+    }
 
-    public boolean isAlive() { return alive; }
+    public boolean isAlive() { return store != null ? store.isAlive(slot) : state.alive; }
 
-    public int getFriendliness() { return friendliness; }
+    public int getFriendliness() { return store != null ? store.getFriendliness(slot) : state.friendliness; }
 
     public void setFriendliness(int friendliness) {
-        this.friendliness = friendliness;
+        if (store != null) {
+            store.setFriendliness(slot, friendliness);
+        } else {
+            state.friendliness = friendliness;
+        }
+        changed();
     }
 
-    public String getSpecies() { return species; }
-    
-    public int getX() { return x; }
-    public int getY() { return y; }
+    /**
+     * @return Name of the species, or null if none was set
+     */
+    public String getSpecies() {
+        int index = getSpeciesIndex();
+        return index >= 0 ? speciesList[index] : null;
+    }
+
+    public int getSpeciesIndex() { return store != null ? store.getSpeciesIndex(slot) : state.speciesIndex; }
+
+    public int getX() { return store != null ? store.getX(slot) : state.x; }
+    public int getY() { return store != null ? store.getY(slot) : state.y; }
     public void setPosition(int x, int y) {
-        this.x = x;
-        this.y = y;
+        int oldX = getX();
+        int oldY = getY();
+        if (store != null) {
+            store.setPosition(slot, x, y);
+        } else {
+            state.x = x;
+            state.y = y;
+        }
+        if (oldX != x || oldY != y) {
+            bumpVersion();
+            if (listener != null) {
+                listener.creatureMoved(this, oldX, oldY);
+            }
+        }
+    }
+
+    /**
+     * @return Counter that goes up every time this creature's state changes
+     */
+    public long getVersion() { return store != null ? store.getVersion(slot) : state.version; }
+
+    private void bumpVersion() {
+        if (store != null) {
+            store.setVersion(slot, store.getVersion(slot) + 1);
+        } else {
+            state.version++;
+        }
+    }
+
+    private void changed() {
+        bumpVersion();
+        if (listener != null) {
+            listener.creatureUpdated(this);
+        }
+    }
+
+    public void setListener(CreatureListener listener) {
+        this.listener = listener;
+    }
+
+    private void setAlive(boolean alive) {
+        if (store != null) {
+            store.setAlive(slot, alive);
+        } else {
+            state.alive = alive;
+        }
     }
 
     public void die() {
-        this.health = 0;
-        this.alive = false;
+        boolean wasAlive = isAlive();
+        setHealth(0);
+        setAlive(false);
+        if (wasAlive && listener != null) {
+            listener.creatureDied(this);
+        }
     }
 
     public void eat(int nutrition) {
-        if (alive) {
-            this.hunger += nutrition;
+        if (isAlive()) {
+            setHunger(getHunger() + nutrition);
         }
     }
-    
+
     public void heal(int amount) {
-        if (alive) {
-            this.health = Math.min(100, this.health + amount); // Cap health at 100
+        if (isAlive()) {
+            setHealth(Math.min(100, getHealth() + amount)); // Cap health at 100
         }
     }
 
     public void takeDamage(int damage) {
-        if (alive) {
-            this.health -= damage;
-            if (this.health <= 0) {
-                this.health = 0;
-                this.alive = false;
+        if (isAlive()) {
+            int remaining = getHealth() - damage;
+            if (remaining <= 0) {
+                setHealth(0);
+                setAlive(false);
+                if (listener != null) {
+                    listener.creatureDied(this);
+                }
+            } else {
+                setHealth(remaining);
             }
         }
     }
 
     public void attack(Creature target) {
-        if (alive && target != null && target.isAlive()) {
-            int damage = this.strength;
+        if (isAlive() && target != null && target.isAlive()) {
+            int damage = getStrength();
             target.takeDamage(damage);
         }
     }
 
-    public abstract Creature reproduce();
+    public abstract Creature reproduce(RandomGenerator random);
 
     public abstract String getType();
 }
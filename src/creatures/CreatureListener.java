@@ -0,0 +1,7 @@
+package creatures;
+
+public interface CreatureListener {
+    public void creatureMoved(Creature creature, int oldX, int oldY);
+    public void creatureDied(Creature creature);
+    public void creatureUpdated(Creature creature);
+}
@@ -0,0 +1,135 @@
+package creatures;
+
+import java.util.Arrays;
+
+/**
+ * Slot-based storage for creature state. Each creature attached to a store
+ * owns one slot and becomes a view that reads and writes it, keeping none
+ * of the state itself, so whole-population passes can walk the slots
+ * directly instead of chasing one object per creature. Subclasses decide
+ * where the slots live: primitive arrays on the heap (ArrayCreatureStore)
+ * or fixed-size records off the heap (OffHeapCreatureStore).
+ */
+public abstract class CreatureStore {
+    private Creature[] views;
+    private int size;
+    private int[] freeSlots;
+    private int freeCount;
+
+    protected CreatureStore(int initialCapacity) {
+        this.views = new Creature[Math.max(16, initialCapacity)];
+        this.size = 0;
+        this.freeSlots = new int[16];
+        this.freeCount = 0;
+    }
+
+    /**
+     * Reserve a slot for a creature
+     * @param view Creature that will read and write the slot
+     * @return Index of the new slot
+     */
+    int allocate(Creature view) {
+        if (freeCount > 0) {
+            int slot = freeSlots[--freeCount];
+            views[slot] = view;
+            return slot;
+        }
+        if (size == views.length) {
+            int capacity = views.length * 2;
+            grow(capacity);
+            views = Arrays.copyOf(views, capacity);
+        }
+        views[size] = view;
+        return size++;
+    }
+
+    /**
+     * Give a dead creature's slot back for reuse by a later creature. The
+     * creature takes its final state back onto the heap.
+     * @param slot Slot to release
+     */
+    public void release(int slot) {
+        Creature view = views[slot];
+        if (view == null) {
+            return;
+        }
+        view.detach();
+        views[slot] = null;
+        setAlive(slot, false);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * @return Number of slots the storage has room for before it next grows
+     */
+    protected int getCapacity() { return views.length; }
+
+    /**
+     * Make room for more slots, keeping the contents of the existing ones
+     * @param capacity New number of slots
+     */
+    protected abstract void grow(int capacity);
+
+    /**
+     * @return Number of slots handed out so far, including released ones
+     */
+    public int size() { return size; }
+
+    public Creature getCreature(int slot) { return views[slot]; }
+
+    /**
+     * @return Id of the creature in the slot, kept here so whole-store passes
+     * need not touch the creature objects
+     */
+    public abstract int getId(int slot);
+    public abstract void setId(int slot, int id);
+
+    public abstract int getX(int slot);
+    public abstract int getY(int slot);
+    public abstract void setPosition(int slot, int x, int y);
+
+    public abstract int getHealth(int slot);
+    public abstract void setHealth(int slot, int health);
+
+    public abstract int getHunger(int slot);
+    public abstract void setHunger(int slot, int hunger);
+
+    public abstract int getStrength(int slot);
+    public abstract void setStrength(int slot, int strength);
+
+    public abstract int getReplicationChance(int slot);
+    public abstract void setReplicationChance(int slot, int replicationChance);
+
+    public abstract int getFriendliness(int slot);
+    public abstract void setFriendliness(int slot, int friendliness);
+
+    public abstract boolean isAlive(int slot);
+    public abstract void setAlive(int slot, boolean alive);
+
+    /**
+     * @return Index into Creature's species list, or -1 if none was set
+     */
+    public abstract int getSpeciesIndex(int slot);
+    public abstract void setSpeciesIndex(int slot, int speciesIndex);
+
+    /**
+     * @return Id of the base name in the NameTable
+     */
+    public abstract int getNameId(int slot);
+    public abstract void setNameId(int slot, int nameId);
+
+    public abstract int getGeneration(int slot);
+    public abstract void setGeneration(int slot, int generation);
+
+    public abstract int getParentId(int slot);
+    public abstract void setParentId(int slot, int parentId);
+
+    /**
+     * @return Counter that goes up every time the creature in the slot changes
+     */
+    public abstract long getVersion(int slot);
+    public abstract void setVersion(int slot, long version);
+}
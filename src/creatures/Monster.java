@@ -1,5 +1,7 @@
 package creatures;
 
+import java.util.random.RandomGenerator;
+
 public class Monster extends Creature {
 
     public Monster(String name) {
@@ -7,16 +9,30 @@ public class Monster extends Creature {
         setSpeciesFromList(1);
     }
 
+    public Monster(String name, RandomGenerator random) {
+        super(name, random);
+        setSpeciesFromList(1);
+    }
+
+    public Monster(int nameId, RandomGenerator random) {
+        super(nameId, random);
+        setSpeciesFromList(1);
+    }
+
+    public Monster(Creature parent, RandomGenerator random) {
+        super(parent, random);
+        setSpeciesFromList(1);
+    }
+
     @Override
-    public Creature reproduce() {
+    public Creature reproduce(RandomGenerator random) {
         if (!isAlive()) {
             return null;
         }
-        
-        java.util.Random random = new java.util.Random();
+
         int randRoll = random.nextInt(0, 100);
-        if (randRoll <= this.replicationChance) {
-            return new Monster(getName() + " Jr.");
+        if (randRoll <= getReplicationChance()) {
+            return new Monster(this, random);
         }
         return null;
 
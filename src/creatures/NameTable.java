@@ -0,0 +1,98 @@
+package creatures;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every distinct base name in use, each stored once and referred to by a
+ * small id. A creature keeps only its base name id and a generation count,
+ * so a descendant's name costs no more than its ancestor's however deep the
+ * family goes; the full name is put together only when something shows it.
+ * Shared by all worlds in the process, so ids are not stable across runs.
+ */
+public final class NameTable {
+    private static final String JUNIOR = " Jr.";
+
+    private static final Map<String, Integer> ids = new HashMap<>();
+    private static String[] names = new String[64];
+    private static int count;
+
+    private NameTable() {
+    }
+
+    /**
+     * @param name Base name, without any generation suffix
+     * @return Id of the name, the same for every call with an equal name
+     */
+    public static synchronized int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count * 2);
+            }
+            id = count;
+            names[count++] = name;
+            ids.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return The base name interned under this id
+     * @throws IndexOutOfBoundsException If no name has this id
+     */
+    public static synchronized String getName(int id) {
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("No name with id " + id);
+        }
+        return names[id];
+    }
+
+    /**
+     * @return Number of distinct base names interned so far
+     */
+    public static synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Put a full name together: the base name for generation 0, "Blaze Jr."
+     * for generation 1, and "Blaze Jr. 2", "Blaze Jr. 3" and so on after that
+     */
+    public static String format(int id, int generation) {
+        String name = getName(id);
+        if (generation == 0) {
+            return name;
+        }
+        return generation == 1 ? name + JUNIOR : name + JUNIOR + " " + generation;
+    }
+
+    /**
+     * Split a full name into base name and generation, the reverse of format()
+     * @return The base name's id, interned if new, and the generation
+     */
+    public static int[] parse(String name) {
+        int numbered = name.lastIndexOf(JUNIOR + " ");
+        if (numbered > 0 && isNumber(name, numbered + JUNIOR.length() + 1)) {
+            int generation = Integer.parseInt(name.substring(numbered + JUNIOR.length() + 1));
+            return new int[] {intern(name.substring(0, numbered)), generation};
+        }
+        if (name.length() > JUNIOR.length() && name.endsWith(JUNIOR)) {
+            return new int[] {intern(name.substring(0, name.length() - JUNIOR.length())), 1};
+        }
+        return new int[] {intern(name), 0};
+    }
+
+    private static boolean isNumber(String text, int from) {
+        if (from >= text.length() || text.length() - from > 9) {
+            return false;
+        }
+        for (int i = from; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,156 @@
+package creatures;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Creature state in fixed-size records outside the Java heap, in a direct
+ * buffer. Slot i is the RECORD_BYTES (56) bytes at i * RECORD_BYTES:
+ * <pre>
+ *  0 x                   4 y
+ *  8 health             12 hunger
+ * 16 strength           20 replication chance
+ * 24 friendliness       28 name id
+ * 32 id                 36 generation
+ * 40 parent id          44 alive (0 or 1)
+ * 45 species index      46..47 padding
+ * 48 version (8 bytes)
+ * </pre>
+ * All in native byte order. Births and deaths then only reuse slots in the
+ * buffer, and the collector never scans or copies the creature state; what
+ * stays on the heap is one small view object per creature. As the layout
+ * is fixed, the buffer could be a file mapping instead.
+ */
+public class OffHeapCreatureStore extends CreatureStore {
+    private static final int X = 0;
+    private static final int Y = 4;
+    private static final int HEALTH = 8;
+    private static final int HUNGER = 12;
+    private static final int STRENGTH = 16;
+    private static final int REPLICATION_CHANCE = 20;
+    private static final int FRIENDLINESS = 24;
+    private static final int NAME_ID = 28;
+    private static final int ID = 32;
+    private static final int GENERATION = 36;
+    private static final int PARENT_ID = 40;
+    private static final int ALIVE = 44;
+    private static final int SPECIES_INDEX = 45;
+    private static final int VERSION = 48;
+
+    public static final int RECORD_BYTES = VERSION + Long.BYTES; // The last field's end
+
+    // Direct buffers are limited to 2 GB
+    private static final int MAX_SLOTS = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private ByteBuffer records;
+
+    public OffHeapCreatureStore(int initialCapacity) {
+        super(initialCapacity);
+        this.records = allocateRecords(getCapacity());
+    }
+
+    private static ByteBuffer allocateRecords(int capacity) {
+        if (capacity > MAX_SLOTS) {
+            throw new IllegalStateException("Off-heap store is limited to " + MAX_SLOTS + " creatures");
+        }
+        return ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Copy the records into a buffer twice the size. The old buffer's memory
+     * is freed once the collector finds the buffer unreachable.
+     */
+    @Override
+    protected void grow(int capacity) {
+        ByteBuffer grown = allocateRecords(capacity);
+        grown.put(0, records, 0, records.capacity());
+        records = grown;
+    }
+
+    /**
+     * @return Bytes of native memory the records take up
+     */
+    public long getReservedBytes() {
+        return records.capacity();
+    }
+
+    private static int offset(int slot, int field) {
+        return slot * RECORD_BYTES + field;
+    }
+
+    @Override
+    public int getId(int slot) { return records.getInt(offset(slot, ID)); }
+    @Override
+    public void setId(int slot, int id) { records.putInt(offset(slot, ID), id); }
+
+    @Override
+    public int getX(int slot) { return records.getInt(offset(slot, X)); }
+    @Override
+    public int getY(int slot) { return records.getInt(offset(slot, Y)); }
+    @Override
+    public void setPosition(int slot, int x, int y) {
+        records.putInt(offset(slot, X), x);
+        records.putInt(offset(slot, Y), y);
+    }
+
+    @Override
+    public int getHealth(int slot) { return records.getInt(offset(slot, HEALTH)); }
+    @Override
+    public void setHealth(int slot, int health) { records.putInt(offset(slot, HEALTH), health); }
+
+    @Override
+    public int getHunger(int slot) { return records.getInt(offset(slot, HUNGER)); }
+    @Override
+    public void setHunger(int slot, int hunger) { records.putInt(offset(slot, HUNGER), hunger); }
+
+    @Override
+    public int getStrength(int slot) { return records.getInt(offset(slot, STRENGTH)); }
+    @Override
+    public void setStrength(int slot, int strength) { records.putInt(offset(slot, STRENGTH), strength); }
+
+    @Override
+    public int getReplicationChance(int slot) { return records.getInt(offset(slot, REPLICATION_CHANCE)); }
+    @Override
+    public void setReplicationChance(int slot, int replicationChance) {
+        records.putInt(offset(slot, REPLICATION_CHANCE), replicationChance);
+    }
+
+    @Override
+    public int getFriendliness(int slot) { return records.getInt(offset(slot, FRIENDLINESS)); }
+    @Override
+    public void setFriendliness(int slot, int friendliness) {
+        records.putInt(offset(slot, FRIENDLINESS), friendliness);
+    }
+
+    @Override
+    public boolean isAlive(int slot) { return records.get(offset(slot, ALIVE)) != 0; }
+    @Override
+    public void setAlive(int slot, boolean alive) { records.put(offset(slot, ALIVE), (byte) (alive ? 1 : 0)); }
+
+    @Override
+    public int getSpeciesIndex(int slot) { return records.get(offset(slot, SPECIES_INDEX)); }
+    @Override
+    public void setSpeciesIndex(int slot, int speciesIndex) {
+        records.put(offset(slot, SPECIES_INDEX), (byte) speciesIndex);
+    }
+
+    @Override
+    public int getNameId(int slot) { return records.getInt(offset(slot, NAME_ID)); }
+    @Override
+    public void setNameId(int slot, int nameId) { records.putInt(offset(slot, NAME_ID), nameId); }
+
+    @Override
+    public int getGeneration(int slot) { return records.getInt(offset(slot, GENERATION)); }
+    @Override
+    public void setGeneration(int slot, int generation) { records.putInt(offset(slot, GENERATION), generation); }
+
+    @Override
+    public int getParentId(int slot) { return records.getInt(offset(slot, PARENT_ID)); }
+    @Override
+    public void setParentId(int slot, int parentId) { records.putInt(offset(slot, PARENT_ID), parentId); }
+
+    @Override
+    public long getVersion(int slot) { return records.getLong(offset(slot, VERSION)); }
+    @Override
+    public void setVersion(int slot, long version) { records.putLong(offset(slot, VERSION), version); }
+}
@@ -0,0 +1,561 @@
+package livingworld;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Scanner;
+import javax.management.JMException;
+
+public class App {
+    // Ticks the continuous mode may run back to back to catch up after a stall
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    private static final int KEYFRAME_EVERY = 10 * SimulationEngine.TICKS_PER_DAY; // Default journal keyframe interval
+    private static final int INITIAL_CREATURES = 10; // Default starting population
+    private static final int SCROLL_COLUMNS = 10; // Screen cells one scroll command moves the view by
+    private static final int SCROLL_ROWS = 5;
+
+    public static void main(String[] args) throws Exception {
+        String coordinator = parseValue(args, "--worker");
+        if (coordinator != null) {
+            // A strip of a partitioned headless run, started by its StripCoordinator
+            int colon = coordinator.lastIndexOf(':');
+            StripWorker.run(coordinator.substring(0, colon), Integer.parseInt(coordinator.substring(colon + 1)));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--headless")) {
+            runHeadless(args);
+            return;
+        }
+        if (parsePath(args, "--replay") != null) {
+            runReplay(args);
+            return;
+        }
+        if (parsePath(args, "--ensemble") != null) {
+            runEnsemble(args);
+            return;
+        }
+
+        Path resumeFrom = parsePath(args, "--resume");
+        Path checkpointPath = parsePath(args, "--checkpoint");
+        int checkpointEvery = parseInt(args, "--checkpoint-every", SimulationEngine.TICKS_PER_DAY);
+
+        WorldVisualizer visualizer = createVisualizer(args);
+        Scanner scanner = new Scanner(System.in);
+        System.out.print("\nPress Enter to start the simulation...");
+        scanner.nextLine();
+        
+        SimulationEngine engine;
+        if (resumeFrom != null) {
+            engine = Checkpoint.load(resumeFrom);
+            System.out.println("\nResumed " + resumeFrom + " at tick " + engine.getTick()
+                    + " (seed " + engine.getWorld().getSeed() + ")");
+        } else {
+            long seed = parseSeed(args);
+            WorldConfig config = parseConfig(args);
+            System.out.println("\nCreating World (seed " + seed + ", " + config + ")... ");
+            engine = new SimulationEngine(new World(config, seed));
+            populate(engine.getWorld(), parseInt(args, "--creatures", INITIAL_CREATURES));
+        }
+        World world = engine.getWorld();
+        int startTick = engine.getTick();
+        
+        // Get number of days from user
+        System.out.print("\nEnter number of days to simulate (or press Enter for continuous mode): ");
+        String daysInput = scanner.nextLine().trim();
+        
+        int totalTicks = -1; // -1 means continuous mode
+        boolean continuousMode = false;
+        
+        if (daysInput.isEmpty()) {
+            continuousMode = true;
+            System.out.println("\nRunning in continuous mode. Press Ctrl+C to stop.");
+        } else {
+            try {
+                int days = Integer.parseInt(daysInput);
+                if (days <= 0) {
+                    System.out.println("\nInvalid input. Using continuous mode instead.");
+                    continuousMode = true;
+                } else {
+                    totalTicks = days * 24; // Each day is 24 ticks
+                    System.out.println("\nSimulating " + days + " day(s) (" + totalTicks + " ticks)...");
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("\nInvalid input. Using continuous mode instead.");
+                continuousMode = true;
+            }
+        }
+        
+        System.out.print("Press Enter to start...");
+        scanner.nextLine();
+        
+        // Frames are captured on this thread and drawn on the render thread
+        RenderThread renderer = new RenderThread(visualizer, parseRate(args, "--fps", 30));
+        renderer.setStats(openStats(args, engine));
+        Runnable showFrame = () -> {
+            Frame frame = visualizer.capture(world, engine.getDay(), engine.getTickInDay(), engine.getTick(),
+                    engine.getRecentEvents(WorldVisualizer.EVENT_LINES));
+            if (frame != null) {
+                renderer.submit(frame);
+            }
+        };
+        engine.addObserver(e -> showFrame.run());
+        renderer.start();
+
+        Journal journal = openJournal(args, engine);
+        TickPacer pacer = new TickPacer(parseRate(args, "--tps", 1), MAX_CATCH_UP_TICKS);
+        pacer.start();
+        
+        boolean running = true;
+        
+        while (running) {
+            engine.step();
+
+            if (!continuousMode && engine.getTick() - startTick >= totalTicks) {
+                running = false;
+            } else if (continuousMode) {
+                if (checkpointPath != null && engine.getTick() % checkpointEvery == 0) {
+                    saveCheckpoint(engine, checkpointPath);
+                }
+                try {
+                    pacer.awaitNextTick();
+                } catch (InterruptedException e) {
+                    running = false;
+                    System.out.println("\nSimulation stopped by user.");
+                }
+            } else {
+                String input;
+                while (true) {
+                    renderer.flush(); // Keep the prompt below the frame
+                    System.out.print("Press Enter to continue to next tick (w/a/s/d to scroll, +/- to zoom, or 'q' to quit)...");
+                    input = scanner.nextLine().trim();
+                    if (!moveView(visualizer, input)) {
+                        break;
+                    }
+                    showFrame.run(); // Same tick, new view
+                }
+                if (input.equalsIgnoreCase("q")) {
+                    running = false;
+                }
+            }
+        }
+
+        renderer.stop();
+        if (journal != null) {
+            journal.close();
+        }
+        if (checkpointPath != null) {
+            saveCheckpoint(engine, checkpointPath);
+            System.out.println("\nSaved checkpoint to " + checkpointPath);
+        }
+        System.out.println("\nSimulation ended.");
+        scanner.close();
+    }
+
+    /**
+     * Run the simulation without prompts, delays or rendering and print a summary
+     * @param args Command line arguments: --headless [days] [--columns | --off-heap] [--parallel] [--batched] [--seed n]
+     * [--board WIDTHxHEIGHT] [--max-creatures n] [--max-food n] [--creatures n]
+     * [--resume file] [--checkpoint file] [--journal file] [--stats] [--stats-every ticks] [--strips n]
+     */
+    private static void runHeadless(String[] args) throws IOException {
+        int days = 365;
+        World.StorageMode storageMode = World.StorageMode.OBJECTS;
+        boolean parallel = false;
+        boolean batched = false;
+        for (String arg : args) {
+            if (arg.equals("--columns")) {
+                storageMode = World.StorageMode.COLUMNS;
+            } else if (arg.equals("--off-heap")) {
+                storageMode = World.StorageMode.OFF_HEAP;
+            } else if (arg.equals("--parallel")) {
+                parallel = true;
+            } else if (arg.equals("--batched")) {
+                batched = true;
+            }
+        }
+        if (args.length > 1 && !args[1].startsWith("--")) {
+            try {
+                days = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid number of days '" + args[1] + "', using " + days + ".");
+            }
+        }
+        if (parseValue(args, "--strips") != null) {
+            runStrips(args, days);
+            return;
+        }
+
+        Path resumeFrom = parsePath(args, "--resume");
+        SimulationEngine engine;
+        if (resumeFrom != null) {
+            engine = Checkpoint.load(resumeFrom);
+        } else {
+            World world = new World(parseConfig(args), storageMode, parseSeed(args));
+            populate(world, parseInt(args, "--creatures", INITIAL_CREATURES));
+            engine = new SimulationEngine(world);
+        }
+        World world = engine.getWorld();
+        world.setParallelMovement(parallel);
+        if (batched) {
+            engine.setEncounterMode(SimulationEngine.EncounterMode.BATCHED);
+        }
+        int totalTicks = days * SimulationEngine.TICKS_PER_DAY;
+        Journal journal = openJournal(args, engine);
+        TickStats stats = openStats(args, engine);
+
+        long start = System.nanoTime();
+        engine.run(totalTicks);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        if (journal != null) {
+            journal.close();
+        }
+
+        Path checkpointPath = parsePath(args, "--checkpoint");
+        if (checkpointPath != null) {
+            Checkpoint.save(engine, checkpointPath);
+        }
+
+        System.out.println("Seed: " + world.getSeed());
+        System.out.println("Simulated " + days + " day(s) (" + totalTicks + " ticks) in " + elapsedMillis + " ms.");
+        System.out.println("Alive: " + world.getAliveCount() + " / " + world.getTotalCreatureCount());
+        System.out.println(String.format("State: %016x", world.getStateDigest()));
+        if (stats != null) {
+            System.out.println("Stats: " + stats.getSummary());
+            System.out.println("Active chunks: " + world.getActiveChunkCount() + " / " + world.getChunkCount());
+            if (world.getOffHeapBytes() > 0) {
+                System.out.println("Off-heap store: " + world.getOffHeapBytes() / 1024 + " KB");
+            }
+        }
+    }
+
+    /**
+     * Run headless with the board split into "--strips n" vertical strips,
+     * one worker process each. Ends in the same state as an undivided run.
+     */
+    private static void runStrips(String[] args, int days) throws IOException {
+        for (String flag : new String[] {"--columns", "--off-heap", "--batched", "--resume", "--checkpoint", "--journal"}) {
+            if (hasFlag(args, flag)) {
+                System.out.println(flag + " can't be combined with --strips.");
+                return;
+            }
+        }
+        World world = new World(parseConfig(args), parseSeed(args));
+        populate(world, parseInt(args, "--creatures", INITIAL_CREATURES));
+        SimulationEngine engine = new SimulationEngine(world);
+        int totalTicks = days * SimulationEngine.TICKS_PER_DAY;
+        TickStats stats = openStats(args, engine);
+
+        int strips = parseInt(args, "--strips", 2);
+        StripCoordinator coordinator;
+        try {
+            coordinator = new StripCoordinator(engine, strips);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + ".");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            coordinator.run(totalTicks);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println("Seed: " + world.getSeed());
+            System.out.println("Simulated " + days + " day(s) (" + totalTicks + " ticks) in " + elapsedMillis
+                    + " ms on " + strips + " strips.");
+            System.out.println("Alive: " + coordinator.getAliveCount() + " / " + coordinator.getTotalCreatureCount());
+            System.out.println(String.format("State: %016x", coordinator.getStateDigest()));
+            System.out.println("Per strip: " + Arrays.toString(coordinator.getStripPopulations()));
+            if (stats != null) {
+                System.out.println("Stats: " + stats.getSummary());
+            }
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    /**
+     * Play a journal back on screen
+     * @param args Command line arguments: --replay file [--from tick] [--tps n] [--fps n] [--diff]
+     * [--view x,y] [--zoom n]
+     */
+    private static void runReplay(String[] args) throws IOException, InterruptedException {
+        Replay replay = Replay.open(parsePath(args, "--replay"));
+        replay.seek(parseInt(args, "--from", replay.getFirstTick()));
+
+        WorldVisualizer visualizer = createVisualizer(args);
+        RenderThread renderer = new RenderThread(visualizer, parseRate(args, "--fps", 30));
+        renderer.start();
+        TickPacer pacer = new TickPacer(parseRate(args, "--tps", 1), MAX_CATCH_UP_TICKS);
+        pacer.start();
+
+        do {
+            int tick = replay.getTick();
+            Frame frame = visualizer.capture(replay.getWorld(),
+                    Math.max(0, tick - 1) / SimulationEngine.TICKS_PER_DAY + 1,
+                    Math.max(0, tick - 1) % SimulationEngine.TICKS_PER_DAY + 1, tick,
+                    replay.getRecentEvents(WorldVisualizer.EVENT_LINES));
+            if (frame != null) {
+                renderer.submit(frame);
+            }
+            pacer.awaitNextTick();
+        } while (replay.next());
+
+        renderer.stop();
+        System.out.println("\nReplay ended at tick " + replay.getTick() + ".");
+    }
+
+    /**
+     * Run a parameter sweep and write one summary line per run
+     * @param args Command line arguments: --ensemble spec [--out file] [--threads n]
+     */
+    private static void runEnsemble(String[] args) throws IOException, InterruptedException {
+        SweepSpec spec;
+        try {
+            spec = SweepSpec.read(parsePath(args, "--ensemble"));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid sweep spec: " + e.getMessage());
+            return;
+        }
+        Path output = parsePath(args, "--out");
+        if (output == null) {
+            output = Paths.get("ensemble.csv");
+        }
+        int threads = parseInt(args, "--threads", Runtime.getRuntime().availableProcessors());
+        int runCount = spec.getRunCount();
+        System.out.println("Sweep: " + spec + ", " + threads + " thread(s)");
+
+        int reportEvery = Math.max(1, runCount / 20);
+        long start = System.nanoTime();
+        new Ensemble(spec, threads).run(output, finished -> {
+            if (finished % reportEvery == 0 || finished == runCount) {
+                System.out.println(finished + " / " + runCount + " runs");
+            }
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Wrote " + output + " in " + elapsedMillis + " ms.");
+    }
+
+    /**
+     * Spawn up to count random creatures; fewer if the world fills up first
+     */
+    private static void populate(World world, int count) {
+        for (int i = 0; i < count && world.createCreature() != null; i++) {
+            // Keep spawning
+        }
+    }
+
+    /**
+     * Read the board size and capacities from "--board WIDTHxHEIGHT",
+     * "--max-creatures n" and "--max-food n", keeping the defaults for the rest
+     */
+    private static WorldConfig parseConfig(String[] args) {
+        WorldConfig config = WorldConfig.DEFAULT;
+        String board = parseValue(args, "--board");
+        if (board != null) {
+            try {
+                int[] size = WorldConfig.parseBoardSize(board);
+                config = config.withBoardSize(size[0], size[1]);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage() + ", using " + config.getBoardWidth() + "x"
+                        + config.getBoardHeight() + ".");
+            }
+        }
+        config = config.withMaxCreatures(parseInt(args, "--max-creatures", config.getMaxCreatures()));
+        return config.withMaxFood(parseInt(args, "--max-food", config.getMaxFood()));
+    }
+
+    /**
+     * Set up the visualizer from "--diff", "--view x,y" (the board cell at
+     * the top left of the view) and "--zoom n" (board cells per screen cell, 0 to fit the board)
+     */
+    private static WorldVisualizer createVisualizer(String[] args) {
+        WorldVisualizer visualizer = new WorldVisualizer();
+        if (hasFlag(args, "--diff")) {
+            visualizer.setRenderMode(WorldVisualizer.RenderMode.DIFF);
+        }
+        String view = parseValue(args, "--view");
+        if (view != null) {
+            String[] position = view.split(",");
+            try {
+                visualizer.setViewport(Integer.parseInt(position[0].trim()), Integer.parseInt(position[1].trim()));
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                System.out.println("Invalid --view '" + view + "', expected x,y.");
+            }
+        }
+        String zoom = parseValue(args, "--zoom");
+        if (zoom != null) {
+            try {
+                visualizer.setScale(Integer.parseInt(zoom.trim())); // 0 is allowed here, unlike parseInt()
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid --zoom '" + zoom + "', using 1.");
+            }
+        }
+        return visualizer;
+    }
+
+    /**
+     * Apply a step mode view command: w/a/s/d scroll, + and - zoom
+     * @return true if the input was a view command
+     */
+    private static boolean moveView(WorldVisualizer visualizer, String input) {
+        switch (input.toLowerCase()) {
+            case "w":
+                visualizer.scroll(0, -SCROLL_ROWS);
+                return true;
+            case "s":
+                visualizer.scroll(0, SCROLL_ROWS);
+                return true;
+            case "a":
+                visualizer.scroll(-SCROLL_COLUMNS, 0);
+                return true;
+            case "d":
+                visualizer.scroll(SCROLL_COLUMNS, 0);
+                return true;
+            case "+":
+                visualizer.zoomIn();
+                return true;
+            case "-":
+                visualizer.zoomOut();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Start a journal if "--journal file" was given
+     * @return The journal, or null if none was asked for
+     */
+    private static Journal openJournal(String[] args, SimulationEngine engine) throws IOException {
+        Path path = parsePath(args, "--journal");
+        if (path == null) {
+            return null;
+        }
+        return new Journal(engine, path, parseInt(args, "--keyframe-every", KEYFRAME_EVERY), true);
+    }
+
+    /**
+     * Start recording tick timings if "--stats" or "--stats-every ticks" was
+     * given. The stats are published over JMX, and with --stats-every a
+     * summary line goes to stderr every so many ticks.
+     * @return The stats, or null if none were asked for
+     */
+    private static TickStats openStats(String[] args, SimulationEngine engine) {
+        boolean periodic = hasFlag(args, "--stats-every");
+        if (!periodic && !hasFlag(args, "--stats")) {
+            return null;
+        }
+        TickStats stats = new TickStats();
+        try {
+            stats.register("simulation");
+        } catch (JMException e) {
+            System.err.println("Could not publish stats over JMX: " + e.getMessage());
+        }
+        if (periodic) {
+            int every = parseInt(args, "--stats-every", SimulationEngine.TICKS_PER_DAY);
+            engine.addObserver(e -> {
+                if (e.getTick() % every == 0) {
+                    System.err.println("[stats] " + stats.getSummary());
+                }
+            });
+        }
+        engine.setStats(stats);
+        return stats;
+    }
+
+    private static boolean hasFlag(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equals(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Save a checkpoint, reporting failures without stopping the simulation
+     */
+    private static void saveCheckpoint(SimulationEngine engine, Path path) {
+        try {
+            Checkpoint.save(engine, path);
+        } catch (IOException e) {
+            System.err.println("Could not save checkpoint: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The path following a flag such as "--resume file", or null if the flag is missing
+     */
+    private static Path parsePath(String[] args, String flag) {
+        String value = parseValue(args, flag);
+        return value == null ? null : Paths.get(value);
+    }
+
+    /**
+     * @return The argument following a flag such as "--board 200x100", or null if the flag is missing
+     */
+    private static String parseValue(String[] args, String flag) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(flag)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read a positive whole number such as "--checkpoint-every 24" from the arguments
+     */
+    private static int parseInt(String[] args, String flag, int defaultValue) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(flag)) {
+                try {
+                    int value = Integer.parseInt(args[i + 1]);
+                    if (value > 0) {
+                        return value;
+                    }
+                } catch (NumberFormatException e) {
+                    // Fall through to the message below
+                }
+                System.out.println("Invalid " + flag + " '" + args[i + 1] + "', using " + defaultValue + ".");
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Read a positive rate such as "--tps 2.5" from the arguments
+     */
+    private static double parseRate(String[] args, String flag, double defaultRate) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(flag)) {
+                try {
+                    double rate = Double.parseDouble(args[i + 1]);
+                    if (rate > 0) {
+                        return rate;
+                    }
+                } catch (NumberFormatException e) {
+                    // Fall through to the message below
+                }
+                System.out.println("Invalid " + flag + " '" + args[i + 1] + "', using " + defaultRate + ".");
+            }
+        }
+        return defaultRate;
+    }
+
+    /**
+     * Read the seed from a "--seed n" argument, or pick a random one
+     */
+    private static long parseSeed(String[] args) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--seed")) {
+                try {
+                    return Long.parseLong(args[i + 1]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid seed '" + args[i + 1] + "', using a random one.");
+                }
+            }
+        }
+        return SimRandom.randomSeed();
+    }
+}
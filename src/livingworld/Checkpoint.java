@@ -0,0 +1,363 @@
+package livingworld;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import creatures.Animal;
+import creatures.Creature;
+import creatures.Monster;
+import creatures.NameTable;
+
+/**
+ * Saves and restores a running simulation in a compact binary file. The file
+ * is encoded in one buffer and written or read through a FileChannel in bulk,
+ * so even very large worlds are a handful of bulk copies. Nothing stays
+ * mapped, so the file can be replaced or deleted right after. Restoring gives back the exact state,
+ * including the random streams and the proximity index order, so a resumed
+ * run continues exactly as the original would have.
+ *
+ * Layout, all numbers big-endian:
+ * <pre>
+ * header    magic "LWCK", format version, seed, storage mode
+ * config    board width, board height, max creatures, max food
+ * state     tick, spawn/encounter/food random state, movement round,
+ *           next creature id, total creatures, total food
+ * settings  encounter mode, encounter/food spawn/reproduction chance, encounter distance
+ * strings   count, then length-prefixed UTF-8 strings; base names and food
+ *           types refer to them by index, so each distinct name is stored once
+ * creatures count, then per alive creature: id, base name, generation, parent id,
+ *           species, health, hunger, strength, replication chance, friendliness, x, y
+ * index     the same creatures' positions in the list, in proximity index order
+ * food      count, then per uneaten item: id, type, nutrition, x, y
+ * </pre>
+ */
+public final class Checkpoint {
+    private static final int MAGIC = 0x4C57434B; // "LWCK"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 1;
+    private static final int CONFIG_BYTES = 4 * 4;
+    private static final int STATE_BYTES = 4 + 8 + 8 + 8 + 8 + 4 + 4 + 4;
+    private static final int SETTINGS_BYTES = 1 + 8 + 8 + 8 + 4;
+    private static final int CREATURE_BYTES = 4 + 4 + 4 + 4 + 1 + 4 * 7;
+    private static final int FOOD_BYTES = 5 * 4;
+
+    private Checkpoint() {
+    }
+
+    /**
+     * Write the engine's world and state to a file. The file is written next
+     * to the target and moved into place, so a crash while saving never
+     * leaves a half-written checkpoint behind.
+     * @param engine Engine to save, between ticks
+     * @param path File to write
+     */
+    public static void save(SimulationEngine engine, Path path) throws IOException {
+        Contents contents = new Contents(engine);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer out = ByteBuffer.allocateDirect(Math.toIntExact(contents.size));
+        contents.writeTo(out);
+        out.flip();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Encode the engine's world and state in memory, e.g. to embed it in another file
+     * @return Buffer holding the checkpoint, ready to be read
+     */
+    static ByteBuffer encode(SimulationEngine engine) {
+        Contents contents = new Contents(engine);
+        ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(contents.size));
+        contents.writeTo(out);
+        return out.flip();
+    }
+
+    /**
+     * Everything a checkpoint holds, gathered so its size is known before writing
+     */
+    private static final class Contents {
+        private final SimulationEngine engine;
+        private final World world;
+        private final List<Creature> creatures;
+        private final Map<Creature, Integer> positions;
+        private final List<Food> food;
+        private final StringTable strings;
+        private final int[] nameIds;
+        private final int[] typeIds;
+        private final long size;
+
+        Contents(SimulationEngine engine) {
+            this.engine = engine;
+            this.world = engine.getWorld();
+
+            // Creatures and food in list order, skipping the dead and eaten
+            this.creatures = new ArrayList<>();
+            this.positions = new HashMap<>();
+            for (Creature creature : world.getCreatures()) {
+                if (creature.isAlive()) {
+                    positions.put(creature, creatures.size());
+                    creatures.add(creature);
+                }
+            }
+            this.food = new ArrayList<>();
+            for (Food item : world.getFood()) {
+                if (!item.isConsumed()) {
+                    food.add(item);
+                }
+            }
+
+            // Each distinct base name and food type once
+            this.strings = new StringTable();
+            this.nameIds = new int[creatures.size()];
+            for (int i = 0; i < creatures.size(); i++) {
+                nameIds[i] = strings.idOf(NameTable.getName(creatures.get(i).getNameId()));
+            }
+            this.typeIds = new int[food.size()];
+            for (int i = 0; i < food.size(); i++) {
+                typeIds[i] = strings.idOf(food.get(i).getType());
+            }
+
+            this.size = HEADER_BYTES + CONFIG_BYTES + STATE_BYTES + SETTINGS_BYTES
+                    + 4L + strings.bytes
+                    + 4L + (long) creatures.size() * (CREATURE_BYTES + 4)
+                    + 4L + (long) food.size() * FOOD_BYTES;
+        }
+
+        void writeTo(ByteBuffer out) {
+            out.putInt(MAGIC);
+            out.putInt(FORMAT_VERSION);
+            out.putLong(world.getSeed());
+            out.put((byte) world.getStorageMode().ordinal());
+
+            WorldConfig config = world.getConfig();
+            out.putInt(config.getBoardWidth());
+            out.putInt(config.getBoardHeight());
+            out.putInt(config.getMaxCreatures());
+            out.putInt(config.getMaxFood());
+
+            out.putInt(engine.getTick());
+            out.putLong(world.getSpawnState());
+            out.putLong(engine.getEncounterState());
+            out.putLong(engine.getFoodState());
+            out.putLong(world.getMovementRound());
+            out.putInt(world.getNextCreatureId());
+            out.putInt(world.getTotalCreatureCount());
+            out.putInt(world.getTotalFoodCount());
+
+            out.put((byte) engine.getEncounterMode().ordinal());
+            out.putDouble(engine.getEncounterChance());
+            out.putDouble(engine.getFoodSpawnChance());
+            out.putDouble(engine.getReproductionChance());
+            out.putInt(engine.getEncounterDistance());
+
+            out.putInt(strings.encoded.size());
+            for (byte[] string : strings.encoded) {
+                out.putInt(string.length);
+                out.put(string);
+            }
+
+            out.putInt(creatures.size());
+            for (int i = 0; i < creatures.size(); i++) {
+                Creature creature = creatures.get(i);
+                out.putInt(creature.getId());
+                out.putInt(nameIds[i]);
+                out.putInt(creature.getGeneration());
+                out.putInt(creature.getParentId());
+                out.put((byte) creature.getSpeciesIndex());
+                out.putInt(creature.getHealth());
+                out.putInt(creature.getHunger());
+                out.putInt(creature.getStrength());
+                out.putInt(creature.getReplicationChance());
+                out.putInt(creature.getFriendliness());
+                out.putInt(creature.getX());
+                out.putInt(creature.getY());
+            }
+            world.forEachIndexed(creature -> out.putInt(positions.get(creature)));
+
+            out.putInt(food.size());
+            for (int i = 0; i < food.size(); i++) {
+                Food item = food.get(i);
+                out.putInt(item.getId());
+                out.putInt(typeIds[i]);
+                out.putInt(item.getNutritionValue());
+                out.putInt(item.getX());
+                out.putInt(item.getY());
+            }
+        }
+    }
+
+    /**
+     * Read a checkpoint back into a new world and engine
+     * @param path File written by save()
+     * @return Engine at the saved tick; its world is engine.getWorld()
+     * @throws IOException If the file cannot be read or is not a checkpoint this version understands
+     */
+    public static SimulationEngine load(Path path) throws IOException {
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to be a checkpoint");
+            }
+            in = ByteBuffer.allocate((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Keep reading until the buffer is full or the file ends
+            }
+        }
+        return read(in.flip(), path.toString());
+    }
+
+    /**
+     * Read a checkpoint made by encode()
+     * @param in Buffer positioned at the start of the checkpoint; left just after its end
+     */
+    static SimulationEngine decode(ByteBuffer in) throws IOException {
+        return read(in, "checkpoint");
+    }
+
+    private static final class StringTable {
+        private final List<byte[]> encoded = new ArrayList<>();
+        private final Map<String, Integer> ids = new HashMap<>();
+        private long bytes;
+
+        int idOf(String string) {
+            Integer id = ids.get(string);
+            if (id == null) {
+                id = encoded.size();
+                ids.put(string, id);
+                byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+                encoded.add(utf8);
+                bytes += 4 + utf8.length;
+            }
+            return id;
+        }
+    }
+
+    private static SimulationEngine read(ByteBuffer in, String source) throws IOException {
+        try {
+            return readContents(in, source);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException(source + " is truncated or corrupt", e);
+        }
+    }
+
+    /**
+     * Read a count or length, checking it against the bytes left so a corrupt
+     * value fails as an IOException rather than a huge or negative allocation
+     * @param bytesEach Fewest bytes each counted item takes up
+     */
+    private static int readCount(ByteBuffer in, int bytesEach, String source) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || (long) count * bytesEach > in.remaining()) {
+            throw new IOException(source + " is truncated or corrupt");
+        }
+        return count;
+    }
+
+    private static SimulationEngine readContents(ByteBuffer in, String source) throws IOException {
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new IOException(source + " is not a checkpoint");
+        }
+        int version = in.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException(source + " has checkpoint format " + version + ", expected " + FORMAT_VERSION);
+        }
+        long seed = in.getLong();
+        World.StorageMode storageMode = World.StorageMode.values()[in.get()];
+
+        WorldConfig config = new WorldConfig(in.getInt(), in.getInt(), in.getInt(), in.getInt());
+
+        int tick = in.getInt();
+        long spawnState = in.getLong();
+        long encounterState = in.getLong();
+        long foodState = in.getLong();
+        long movementRound = in.getLong();
+        int nextCreatureId = in.getInt();
+        int totalCreatures = in.getInt();
+        int totalFood = in.getInt();
+
+        SimulationEngine.EncounterMode encounterMode = SimulationEngine.EncounterMode.values()[in.get()];
+        double encounterChance = in.getDouble();
+        double foodSpawnChance = in.getDouble();
+        double reproductionChance = in.getDouble();
+        int encounterDistance = in.getInt();
+
+        String[] strings = new String[readCount(in, 4, source)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] encoded = new byte[readCount(in, 1, source)];
+            in.get(encoded);
+            strings[i] = new String(encoded, StandardCharsets.UTF_8);
+        }
+
+        int creatureCount = readCount(in, 1, source);
+        List<Creature> creatures = new ArrayList<>(creatureCount);
+        for (int i = 0; i < creatureCount; i++) {
+            int id = in.getInt();
+            int nameId = NameTable.intern(strings[in.getInt()]);
+            int generation = in.getInt();
+            int parentId = in.getInt();
+            int species = in.get();
+            Creature creature;
+            if (species == 0) {
+                creature = new Animal(nameId, ThreadLocalRandom.current());
+            } else if (species == 1) {
+                creature = new Monster(nameId, ThreadLocalRandom.current());
+            } else {
+                throw new IOException(source + " has a creature of unknown species " + species);
+            }
+            creature.setId(id);
+            creature.setGeneration(generation);
+            creature.setParentId(parentId);
+            creature.setHealth(in.getInt());
+            creature.setHunger(in.getInt());
+            creature.setStrength(in.getInt());
+            creature.setReplicationChance(in.getInt());
+            creature.setFriendliness(in.getInt());
+            creature.setPosition(in.getInt(), in.getInt());
+            creatures.add(creature);
+        }
+        List<Creature> indexOrder = new ArrayList<>(creatureCount);
+        for (int i = 0; i < creatureCount; i++) {
+            indexOrder.add(creatures.get(in.getInt()));
+        }
+
+        int foodCount = readCount(in, 1, source);
+        List<Food> food = new ArrayList<>(foodCount);
+        for (int i = 0; i < foodCount; i++) {
+            int id = in.getInt();
+            Food item = new Food(strings[in.getInt()], in.getInt());
+            item.setId(id);
+            item.setPosition(in.getInt(), in.getInt());
+            food.add(item);
+        }
+
+        World world = new World(config, storageMode, seed);
+        world.restore(spawnState, movementRound, nextCreatureId, totalCreatures, totalFood,
+                creatures, indexOrder, food);
+        SimulationEngine engine = new SimulationEngine(world);
+        engine.setEncounterMode(encounterMode);
+        engine.setEncounterChance(encounterChance);
+        engine.setFoodSpawnChance(foodSpawnChance);
+        engine.setReproductionChance(reproductionChance);
+        engine.setEncounterDistance(encounterDistance);
+        engine.restore(tick, encounterState, foodState);
+        return engine;
+    }
+}
@@ -0,0 +1,217 @@
+package livingworld;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The buckets of a grid index, grouped into square chunks of cells. A chunk
+ * only exists while one of its buckets holds something: it wakes up when the
+ * first item arrives and is dropped again when the last one leaves. Passes
+ * over the whole index visit the awake chunks only, so both memory and the
+ * cost of a pass follow the occupied part of the board rather than its size.
+ * Items moving across a chunk boundary simply leave one chunk's bucket and
+ * enter the other's.
+ */
+final class ChunkedBuckets<T> {
+    private final int columns;
+    private final int rows;
+    private final int chunkShift;
+    private final int chunkSize;
+    private final int chunkColumns;
+    private final int chunkRows;
+    private final Chunk<T>[] chunks;
+    private final BitSet awake;
+    private final int[] rowChunks; // Scratch list of the awake chunks in one chunk row
+
+    /**
+     * Visits a non-empty bucket
+     */
+    interface BucketVisitor<T> {
+        /**
+         * @param cx Column of the bucket's cell
+         * @param cy Row of the bucket's cell
+         * @return Any count the caller wants summed over all buckets
+         */
+        long visit(int cx, int cy, List<T> bucket);
+    }
+
+    private static final class Chunk<T> {
+        private final List<T>[] buckets;
+        private int items;
+
+        @SuppressWarnings("unchecked")
+        Chunk(int cells) {
+            this.buckets = (List<T>[]) new List<?>[cells];
+        }
+    }
+
+    /**
+     * @param columns Cells across
+     * @param rows Cells down
+     * @param chunkShift log2 of the chunk size in cells, e.g. 4 for chunks of 16 x 16 cells
+     */
+    @SuppressWarnings("unchecked")
+    ChunkedBuckets(int columns, int rows, int chunkShift) {
+        this.columns = columns;
+        this.rows = rows;
+        this.chunkShift = chunkShift;
+        this.chunkSize = 1 << chunkShift;
+        this.chunkColumns = (columns + chunkSize - 1) >> chunkShift;
+        this.chunkRows = (rows + chunkSize - 1) >> chunkShift;
+        this.chunks = (Chunk<T>[]) new Chunk<?>[chunkColumns * chunkRows];
+        this.awake = new BitSet(chunks.length);
+        this.rowChunks = new int[chunkColumns];
+    }
+
+    private int chunkIndex(int cx, int cy) {
+        return (cy >> chunkShift) * chunkColumns + (cx >> chunkShift);
+    }
+
+    private int cellInChunk(int cx, int cy) {
+        return ((cy & (chunkSize - 1)) << chunkShift) + (cx & (chunkSize - 1));
+    }
+
+    /**
+     * @return The bucket of a cell, or null if it has never held anything since its chunk woke up
+     */
+    List<T> get(int cx, int cy) {
+        Chunk<T> chunk = chunks[chunkIndex(cx, cy)];
+        return chunk == null ? null : chunk.buckets[cellInChunk(cx, cy)];
+    }
+
+    void add(int cx, int cy, T item) {
+        int index = chunkIndex(cx, cy);
+        Chunk<T> chunk = chunks[index];
+        if (chunk == null) {
+            chunk = new Chunk<>(chunkSize * chunkSize);
+            chunks[index] = chunk;
+            awake.set(index);
+        }
+        int cell = cellInChunk(cx, cy);
+        List<T> bucket = chunk.buckets[cell];
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            chunk.buckets[cell] = bucket;
+        }
+        bucket.add(item);
+        chunk.items++;
+    }
+
+    /**
+     * @return true if the item was in the cell's bucket
+     */
+    boolean remove(int cx, int cy, T item) {
+        int index = chunkIndex(cx, cy);
+        Chunk<T> chunk = chunks[index];
+        if (chunk == null) {
+            return false;
+        }
+        List<T> bucket = chunk.buckets[cellInChunk(cx, cy)];
+        if (bucket == null || !bucket.remove(item)) {
+            return false;
+        }
+        if (--chunk.items == 0) {
+            chunks[index] = null;
+            awake.clear(index);
+        }
+        return true;
+    }
+
+    /**
+     * Visit the non-empty buckets of the awake chunks in row-major cell
+     * order, the same order a flat grid of buckets would be visited in. The
+     * buckets must not be changed while they are visited.
+     * @return Sum of what the visitor returned
+     */
+    long forEachBucket(BucketVisitor<T> visitor) {
+        long total = 0;
+        for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+            int first = chunkRow * chunkColumns;
+            int end = first + chunkColumns;
+            int count = 0;
+            for (int index = awake.nextSetBit(first); index >= 0 && index < end; index = awake.nextSetBit(index + 1)) {
+                rowChunks[count++] = index;
+            }
+            if (count == 0) {
+                continue;
+            }
+
+            // Row by row across all awake chunks of this chunk row
+            int firstRow = chunkRow << chunkShift;
+            int lastRow = Math.min(rows, firstRow + chunkSize);
+            for (int cy = firstRow; cy < lastRow; cy++) {
+                int rowStart = (cy - firstRow) << chunkShift;
+                for (int i = 0; i < count; i++) {
+                    Chunk<T> chunk = chunks[rowChunks[i]];
+                    int firstColumn = (rowChunks[i] - first) << chunkShift;
+                    int lastColumn = Math.min(columns, firstColumn + chunkSize);
+                    for (int cx = firstColumn; cx < lastColumn; cx++) {
+                        List<T> bucket = chunk.buckets[rowStart + cx - firstColumn];
+                        if (bucket != null && !bucket.isEmpty()) {
+                            total += visitor.visit(cx, cy, bucket);
+                        }
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Visit the non-empty buckets of the cells within [fromColumn, toColumn)
+     * x [fromRow, toRow), looking only at the chunks that overlap the area and
+     * skipping those that are asleep. Unlike forEachBucket() the order is
+     * chunk by chunk, not row-major.
+     * @return Sum of what the visitor returned
+     */
+    long forEachBucketIn(int fromColumn, int fromRow, int toColumn, int toRow, BucketVisitor<T> visitor) {
+        int minX = Math.max(0, fromColumn);
+        int minY = Math.max(0, fromRow);
+        int maxX = Math.min(columns, toColumn);
+        int maxY = Math.min(rows, toRow);
+        long total = 0;
+        if (minX >= maxX || minY >= maxY) {
+            return total;
+        }
+        for (int chunkRow = minY >> chunkShift; chunkRow <= (maxY - 1) >> chunkShift; chunkRow++) {
+            for (int chunkColumn = minX >> chunkShift; chunkColumn <= (maxX - 1) >> chunkShift; chunkColumn++) {
+                Chunk<T> chunk = chunks[chunkRow * chunkColumns + chunkColumn];
+                if (chunk == null) {
+                    continue;
+                }
+                int firstRow = Math.max(minY, chunkRow << chunkShift);
+                int lastRow = Math.min(maxY, (chunkRow + 1) << chunkShift);
+                int firstColumn = Math.max(minX, chunkColumn << chunkShift);
+                int lastColumn = Math.min(maxX, (chunkColumn + 1) << chunkShift);
+                for (int cy = firstRow; cy < lastRow; cy++) {
+                    for (int cx = firstColumn; cx < lastColumn; cx++) {
+                        List<T> bucket = chunk.buckets[cellInChunk(cx, cy)];
+                        if (bucket != null && !bucket.isEmpty()) {
+                            total += visitor.visit(cx, cy, bucket);
+                        }
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return Chunks holding at least one item
+     */
+    int getAwakeChunkCount() {
+        return awake.cardinality();
+    }
+
+    int getChunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * @return Side of a chunk in cells
+     */
+    int getChunkSize() {
+        return chunkSize;
+    }
+}
@@ -0,0 +1,219 @@
+package livingworld;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import creatures.Creature;
+
+/**
+ * Runs every run of a sweep as an independent headless simulation, several
+ * at a time on a fixed pool of threads, and streams one CSV line of summary
+ * statistics per run into a result file in run order, so the same sweep
+ * always gives the same file. Runs share nothing but the immutable creature
+ * names, so they scale with the cores.
+ */
+public class Ensemble {
+    private final SweepSpec spec;
+    private final int threads;
+
+    /**
+     * What one run came to
+     */
+    public static final class Summary {
+        private final SweepSpec.Run run;
+        private final int ticks;
+        private final int extinctionTick;
+        private final int[] speciesExtinctionTicks;
+        private final int peakPopulation;
+        private final int peakTick;
+        private final int finalPopulation;
+        private final String[] speciesShares;
+
+        Summary(SweepSpec.Run run, int ticks, int extinctionTick, int[] speciesExtinctionTicks,
+                int peakPopulation, int peakTick, int finalPopulation, String[] speciesShares) {
+            this.run = run;
+            this.ticks = ticks;
+            this.extinctionTick = extinctionTick;
+            this.speciesExtinctionTicks = speciesExtinctionTicks;
+            this.peakPopulation = peakPopulation;
+            this.peakTick = peakTick;
+            this.finalPopulation = finalPopulation;
+            this.speciesShares = speciesShares;
+        }
+
+        public SweepSpec.Run getRun() { return run; }
+
+        public int getTicks() { return ticks; }
+
+        /**
+         * @return Tick the last creature died, or -1 if some survived
+         */
+        public int getExtinctionTick() { return extinctionTick; }
+
+        public int getPeakPopulation() { return peakPopulation; }
+
+        public int getFinalPopulation() { return finalPopulation; }
+
+        static String header() {
+            StringBuilder line = new StringBuilder(
+                    "run,seed,encounterChance,foodSpawnChance,reproductionChance,maxCreatures,"
+                    + "ticks,extinctionTick,peakPopulation,peakTick,finalPopulation");
+            for (int species = 0; species < Creature.getSpeciesCount(); species++) {
+                line.append(',').append(Creature.getSpeciesName(species)).append("ExtinctionTick");
+            }
+            for (int species = 0; species < Creature.getSpeciesCount(); species++) {
+                line.append(',').append(Creature.getSpeciesName(species)).append("ShareByDay");
+            }
+            return line.toString();
+        }
+
+        /**
+         * @return The CSV line; extinction ticks are empty when nothing died
+         * out, and shares are ';'-separated, one per simulated day
+         */
+        String toCsv() {
+            StringBuilder line = new StringBuilder();
+            line.append(run.getIndex()).append(',').append(run.getSeed())
+                    .append(',').append(run.getEncounterChance())
+                    .append(',').append(run.getFoodSpawnChance())
+                    .append(',').append(run.getReproductionChance())
+                    .append(',').append(run.getConfig().getMaxCreatures())
+                    .append(',').append(ticks)
+                    .append(',').append(extinctionTick < 0 ? "" : String.valueOf(extinctionTick))
+                    .append(',').append(peakPopulation)
+                    .append(',').append(peakTick)
+                    .append(',').append(finalPopulation);
+            for (int tick : speciesExtinctionTicks) {
+                line.append(',').append(tick < 0 ? "" : String.valueOf(tick));
+            }
+            for (String shares : speciesShares) {
+                line.append(',').append(shares);
+            }
+            return line.toString();
+        }
+    }
+
+    /**
+     * @param threads Runs simulated at the same time, e.g. one per core
+     */
+    public Ensemble(SweepSpec spec, int threads) {
+        this.spec = spec;
+        this.threads = threads;
+    }
+
+    /**
+     * Simulate every run of the sweep and write the summaries to a CSV file in
+     * run index order. A run that finishes early waits until the runs before
+     * it are written; each line is flushed as it is written, so a long sweep
+     * can be watched and an interrupted one keeps its results up to the
+     * first unfinished run.
+     * @param progress Called with the number of finished runs after each one
+     */
+    public void run(Path output, IntConsumer progress) throws IOException, InterruptedException {
+        int runCount = spec.getRunCount();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "ensemble-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            CompletionService<Summary> runs = new ExecutorCompletionService<>(pool);
+            for (int i = 0; i < runCount; i++) {
+                SweepSpec.Run run = spec.getRun(i);
+                runs.submit(() -> simulate(run, spec.getDays(), spec.getCreatures()));
+            }
+
+            out.write(Summary.header());
+            out.newLine();
+            Summary[] finishedRuns = new Summary[runCount];
+            int written = 0;
+            for (int finished = 1; finished <= runCount; finished++) {
+                Summary summary;
+                try {
+                    summary = runs.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("A run failed", e.getCause());
+                }
+                finishedRuns[summary.getRun().getIndex()] = summary;
+                while (written < runCount && finishedRuns[written] != null) {
+                    out.write(finishedRuns[written].toCsv());
+                    out.newLine();
+                    finishedRuns[written++] = null;
+                }
+                out.flush();
+                progress.accept(finished);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Simulate one run until its last day or until every creature has died,
+     * whichever comes first
+     */
+    public static Summary simulate(SweepSpec.Run run, int days, int creatures) {
+        World world = new World(run.getConfig(), run.getSeed());
+        for (int i = 0; i < creatures && world.createCreature() != null; i++) {
+            // Keep spawning
+        }
+        SimulationEngine engine = new SimulationEngine(world);
+        engine.setEncounterChance(run.getEncounterChance());
+        engine.setFoodSpawnChance(run.getFoodSpawnChance());
+        engine.setReproductionChance(run.getReproductionChance());
+
+        int speciesCount = Creature.getSpeciesCount();
+        int[] speciesExtinctionTicks = new int[speciesCount];
+        StringBuilder[] shares = new StringBuilder[speciesCount];
+        for (int species = 0; species < speciesCount; species++) {
+            speciesExtinctionTicks[species] = world.getAliveCount(species) == 0 ? 0 : -1;
+            shares[species] = new StringBuilder();
+        }
+        int peakPopulation = world.getAliveCount();
+        int peakTick = 0;
+
+        int totalTicks = days * SimulationEngine.TICKS_PER_DAY;
+        while (engine.getTick() < totalTicks && world.getAliveCount() > 0) {
+            engine.step();
+            int tick = engine.getTick();
+            int alive = world.getAliveCount();
+            if (alive > peakPopulation) {
+                peakPopulation = alive;
+                peakTick = tick;
+            }
+            for (int species = 0; species < speciesCount; species++) {
+                if (speciesExtinctionTicks[species] < 0 && world.getAliveCount(species) == 0) {
+                    speciesExtinctionTicks[species] = tick;
+                }
+            }
+            if (tick % SimulationEngine.TICKS_PER_DAY == 0) {
+                for (int species = 0; species < speciesCount; species++) {
+                    if (shares[species].length() > 0) {
+                        shares[species].append(';');
+                    }
+                    double share = alive == 0 ? 0 : (double) world.getAliveCount(species) / alive;
+                    shares[species].append(String.format(Locale.ROOT, "%.3f", share));
+                }
+            }
+        }
+
+        String[] speciesShares = new String[speciesCount];
+        for (int species = 0; species < speciesCount; species++) {
+            speciesShares[species] = shares[species].toString();
+        }
+        int alive = world.getAliveCount();
+        return new Summary(run, engine.getTick(), alive == 0 ? engine.getTick() : -1, speciesExtinctionTicks,
+                peakPopulation, peakTick, alive, speciesShares);
+    }
+}
@@ -0,0 +1,277 @@
+package livingworld;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import creatures.Combat;
+import creatures.Creature;
+import creatures.NameTable;
+
+/**
+ * Ring buffer of simulation events. Each event is a few primitive fields kept
+ * in preallocated arrays, copied from the creatures and food when it is
+ * recorded, so recording one allocates nothing and the log holds on to no
+ * creature after the world drops it. Text is only built when someone asks
+ * for it with format(), and shows the names as they were at the time.
+ * Events are numbered by an ever increasing sequence, and once the buffer
+ * is full the oldest events are overwritten.
+ */
+public class EventLog {
+    // Details for ENCOUNTER events
+    public static final int ENCOUNTER_MET = 0;
+    public static final int ENCOUNTER_NO_OFFSPRING = 1;
+    public static final int ENCOUNTER_FIGHT = 2;
+
+    // Details for BIRTH events
+    public static final int BIRTH_CONCEIVED = 0; // Parents produced offspring
+    public static final int BIRTH_ADDED = 1; // Offspring was added to the world
+
+    public interface Subscriber {
+        /**
+         * Called right after an event of a subscribed type is recorded
+         * @param log Log holding the event
+         * @param sequence Sequence number to read the event with
+         */
+        public void eventRecorded(EventLog log, long sequence);
+    }
+
+    private final int mask;
+    private final byte[] types;
+    private final byte[] details;
+    private final int[] ticks;
+    private final int[] values;
+    private final Participants subjects;
+    private final Participants others;
+    private final int[] itemIds;
+    private final int[] itemTypes; // Index into foodTypes
+    private long nextSequence;
+
+    // Distinct food types seen so far, so events can refer to them by index
+    private final List<String> foodTypes;
+    private final Map<String, Integer> foodTypeIds;
+
+    private final List<Subscriber> subscribers;
+    private final List<Set<EventType>> subscribedTypes;
+
+    private static final EventType[] TYPES = EventType.values();
+
+    /**
+     * One creature role of every event: its id, species and name as they
+     * were when the event was recorded, with id -1 where there was none
+     */
+    private static final class Participants {
+        final int[] ids;
+        final byte[] species;
+        final int[] nameIds;
+        final int[] generations;
+
+        Participants(int size) {
+            this.ids = new int[size];
+            this.species = new byte[size];
+            this.nameIds = new int[size];
+            this.generations = new int[size];
+        }
+
+        void set(int i, Creature creature) {
+            if (creature == null) {
+                ids[i] = -1;
+                species[i] = -1;
+                return;
+            }
+            ids[i] = creature.getId();
+            species[i] = (byte) creature.getSpeciesIndex();
+            nameIds[i] = creature.getNameId();
+            generations[i] = creature.getGeneration();
+        }
+
+        String name(int i) {
+            return NameTable.format(nameIds[i], generations[i]);
+        }
+
+        String type(int i) {
+            return species[i] >= 0 ? Creature.getSpeciesName(species[i]) : "Creature";
+        }
+    }
+
+    /**
+     * @param capacity Most recent events to keep; rounded up to a power of two
+     */
+    public EventLog(int capacity) {
+        int size = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.types = new byte[size];
+        this.details = new byte[size];
+        this.ticks = new int[size];
+        this.values = new int[size];
+        this.subjects = new Participants(size);
+        this.others = new Participants(size);
+        this.itemIds = new int[size];
+        this.itemTypes = new int[size];
+        this.nextSequence = 0;
+        this.foodTypes = new ArrayList<>();
+        this.foodTypeIds = new HashMap<>();
+        this.subscribers = new ArrayList<>();
+        this.subscribedTypes = new ArrayList<>();
+    }
+
+    /**
+     * Record an event. The creatures and food are only read, not kept.
+     * @param tick Tick the event happened in
+     * @param type Kind of event
+     * @param detail Type specific detail, e.g. ENCOUNTER_FIGHT or a Combat.Outcome ordinal
+     * @param subject Creature the event is about, if any
+     * @param other Second creature involved, if any
+     * @param item Food involved, if any
+     * @param value Type specific number, e.g. the health gained by eating
+     * @return Sequence number of the event
+     */
+    public long record(int tick, EventType type, int detail, Creature subject, Creature other, Food item, int value) {
+        long sequence = nextSequence++;
+        int i = (int) sequence & mask;
+        types[i] = (byte) type.ordinal();
+        details[i] = (byte) detail;
+        ticks[i] = tick;
+        values[i] = value;
+        subjects.set(i, subject);
+        others.set(i, other);
+        itemIds[i] = item != null ? item.getId() : -1;
+        itemTypes[i] = item != null ? foodTypeId(item.getType()) : -1;
+
+        for (int s = 0; s < subscribers.size(); s++) {
+            if (subscribedTypes.get(s).contains(type)) {
+                subscribers.get(s).eventRecorded(this, sequence);
+            }
+        }
+        return sequence;
+    }
+
+    private int foodTypeId(String type) {
+        Integer id = foodTypeIds.get(type);
+        if (id == null) {
+            id = foodTypes.size();
+            foodTypes.add(type);
+            foodTypeIds.put(type, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param subscriber Called for every event of the given types from now on
+     * @param first Type to subscribe to
+     * @param rest Further types to subscribe to
+     */
+    public void subscribe(Subscriber subscriber, EventType first, EventType... rest) {
+        subscribers.add(subscriber);
+        subscribedTypes.add(EnumSet.of(first, rest));
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        int index = subscribers.indexOf(subscriber);
+        if (index >= 0) {
+            subscribers.remove(index);
+            subscribedTypes.remove(index);
+        }
+    }
+
+    /**
+     * @return Sequence number the next recorded event will get
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * @return Sequence number of the oldest event still in the buffer
+     */
+    public long getOldestSequence() {
+        return Math.max(0, nextSequence - types.length);
+    }
+
+    public EventType getType(long sequence) { return TYPES[types[slot(sequence)]]; }
+    public int getDetail(long sequence) { return details[slot(sequence)]; }
+    public int getTick(long sequence) { return ticks[slot(sequence)]; }
+    public int getValue(long sequence) { return values[slot(sequence)]; }
+
+    /**
+     * @return Id of the creature the event is about, or -1 if none
+     */
+    public int getSubjectId(long sequence) { return subjects.ids[slot(sequence)]; }
+
+    /**
+     * @return Id of the second creature involved, or -1 if none
+     */
+    public int getOtherId(long sequence) { return others.ids[slot(sequence)]; }
+
+    /**
+     * @return Id of the food involved, or -1 if none
+     */
+    public int getItemId(long sequence) { return itemIds[slot(sequence)]; }
+
+    private int slot(long sequence) {
+        if (sequence < getOldestSequence() || sequence >= nextSequence) {
+            throw new IllegalArgumentException("Event " + sequence + " is not in the log");
+        }
+        return (int) sequence & mask;
+    }
+
+    /**
+     * Format the most recent events of some types in a range as text
+     * @param from First sequence number to consider; older ones that were overwritten are skipped
+     * @param to Sequence number to stop before
+     * @param types Types to include
+     * @param limit Most lines to return; the last ones in the range are kept
+     * @return One line per event, oldest first
+     */
+    public List<String> format(long from, long to, Set<EventType> types, int limit) {
+        List<String> lines = new ArrayList<>();
+        long oldest = Math.max(from, getOldestSequence());
+        for (long sequence = to - 1; sequence >= oldest && lines.size() < limit; sequence--) {
+            if (types.contains(getType(sequence))) {
+                lines.add(format(sequence));
+            }
+        }
+        Collections.reverse(lines);
+        return lines;
+    }
+
+    /**
+     * @return The event as a line of text
+     */
+    public String format(long sequence) {
+        int i = slot(sequence);
+        switch (TYPES[types[i]]) {
+            case ENCOUNTER:
+                if (details[i] == ENCOUNTER_NO_OFFSPRING) {
+                    return "  No reproduction occurred.";
+                } else if (details[i] == ENCOUNTER_FIGHT) {
+                    return "  A fight to the death begins!";
+                }
+                return "ENCOUNTER: " + subjects.name(i) + " (" + subjects.type(i) +
+                        ") meets " + others.name(i) + " (" + others.type(i) + ")!";
+            case BIRTH:
+                if (details[i] == BIRTH_CONCEIVED) {
+                    return "  " + others.type(i) + "s reproduced! New: " + subjects.name(i);
+                }
+                return subjects.name(i) + " was born!";
+            case DEATH:
+                return subjects.name(i) + " died!";
+            case FIGHT_RESULT:
+                if (details[i] == Combat.Outcome.STALEMATE.ordinal()) {
+                    return "  Neither " + subjects.name(i) + " nor " + others.name(i) + " can hurt the other!";
+                } else if (details[i] == Combat.Outcome.FIRST_WINS.ordinal()) {
+                    return "  " + others.name(i) + " defeated! " + subjects.name(i) + " wins!";
+                }
+                return "  " + subjects.name(i) + " defeated! " + others.name(i) + " wins!";
+            case ATE:
+                return subjects.name(i) + " ate " + foodTypes.get(itemTypes[i]) + "! (+" + values[i] + " health)";
+            case FOOD_SPAWN:
+                return "Food spawned in the world!";
+            default:
+                return TYPES[types[i]].name();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package livingworld;
+
+/**
+ * Kinds of things that happen during a tick, as recorded in the EventLog
+ */
+public enum EventType {
+    ENCOUNTER,
+    BIRTH,
+    DEATH,
+    FIGHT_RESULT,
+    ATE,
+    FOOD_SPAWN
+}
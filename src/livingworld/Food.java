@@ -1,9 +1,14 @@
+package livingworld;
+
 public class Food {
+    private int id = -1;
     private String type;
     private int nutritionValue;
     private boolean consumed;
     private int x;
     private int y;
+    private FoodIndex index;
+    private long version;
 
     public Food(String type, int nutritionValue) {
         this.type = type;
@@ -14,11 +19,25 @@ public class Food {
     public int consume() {
         if (!consumed) {
             consumed = true;
+            version++;
+            if (index != null) {
+                index.remove(this);
+                index = null;
+            }
             return nutritionValue;
         }
         return 0;
     }
 
+    /**
+     * @return Id assigned by the world when the food was spawned, or -1
+     */
+    public int getId() { return id; }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
     public String getType() { return type; }
 
     public int getNutritionValue() { return nutritionValue; }
@@ -30,6 +49,16 @@ public class Food {
     public void setPosition(int x, int y) {
         this.x = x;
         this.y = y;
+        version++;
+    }
+
+    /**
+     * @return Counter that goes up every time this food item changes
+     */
+    public long getVersion() { return version; }
+
+    void setIndex(FoodIndex index) {
+        this.index = index;
     }
 
     @Override
@@ -0,0 +1,116 @@
+package livingworld;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Buckets uneaten food into square cells so creatures can find food near them
+ * without scanning every food item that was ever spawned. Food removes itself
+ * from the index when it is consumed. Like SpatialGrid, cells are grouped into
+ * chunks that only exist while food lies in them.
+ */
+public class FoodIndex {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final ChunkedBuckets<Food> cells;
+    private int size;
+    private Consumer<Food> removalListener;
+
+    /**
+     * @param cellSize Side of a cell in board cells
+     * @param chunkShift log2 of the side of a chunk in cells
+     */
+    public FoodIndex(int width, int height, int cellSize, int chunkShift) {
+        this.cellSize = cellSize;
+        this.columns = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.cells = new ChunkedBuckets<>(columns, rows, chunkShift);
+    }
+
+    private int cellX(int x) {
+        return Math.max(0, Math.min(columns - 1, x / cellSize));
+    }
+
+    private int cellY(int y) {
+        return Math.max(0, Math.min(rows - 1, y / cellSize));
+    }
+
+    public void add(Food food) {
+        cells.add(cellX(food.getX()), cellY(food.getY()), food);
+        food.setIndex(this);
+        size++;
+    }
+
+    public void remove(Food food) {
+        if (cells.remove(cellX(food.getX()), cellY(food.getY()), food)) {
+            size--;
+            if (removalListener != null) {
+                removalListener.accept(food);
+            }
+        }
+    }
+
+    /**
+     * @param removalListener Called whenever food leaves the index, e.g. because it was eaten
+     */
+    public void setRemovalListener(Consumer<Food> removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    /**
+     * Find the closest uneaten food to a position
+     * @param x X position to search around
+     * @param y Y position to search around
+     * @param maxDistance Maximum manhattan distance (in cells)
+     * @return The nearest food within maxDistance, or null if there is none
+     */
+    public Food findNearest(int x, int y, int maxDistance) {
+        int minCx = Math.max(0, (x - maxDistance) / cellSize);
+        int maxCx = Math.min(columns - 1, (x + maxDistance) / cellSize);
+        int minCy = Math.max(0, (y - maxDistance) / cellSize);
+        int maxCy = Math.min(rows - 1, (y + maxDistance) / cellSize);
+
+        Food nearest = null;
+        int nearestDistance = maxDistance + 1;
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                List<Food> bucket = cells.get(cx, cy);
+                if (bucket == null) continue;
+                for (Food food : bucket) {
+                    int distance = Math.abs(food.getX() - x) + Math.abs(food.getY() - y);
+                    if (distance < nearestDistance) {
+                        nearest = food;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Visit the food positioned within [fromX, toX) x [fromY, toY), looking
+     * only at the buckets that overlap the area
+     */
+    public void forEachInArea(int fromX, int fromY, int toX, int toY, Consumer<Food> action) {
+        cells.forEachBucketIn(fromX / cellSize, fromY / cellSize,
+                (toX + cellSize - 1) / cellSize, (toY + cellSize - 1) / cellSize, (cx, cy, bucket) -> {
+            for (Food food : bucket) {
+                int x = food.getX();
+                int y = food.getY();
+                if (x >= fromX && x < toX && y >= fromY && y < toY) {
+                    action.accept(food);
+                }
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * @return Number of uneaten food items in the index
+     */
+    public int size() {
+        return size;
+    }
+}
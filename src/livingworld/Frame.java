@@ -0,0 +1,100 @@
+package livingworld;
+
+import java.util.List;
+
+/**
+ * Immutable picture of the world at the end of one tick: everything the
+ * visualizer needs to draw it. Frames are captured on the simulation thread
+ * and can be drawn on another one while the simulation carries on.
+ */
+public final class Frame {
+    private final int day;
+    private final int tickInDay;
+    private final int totalTick;
+    private final char[][] grid;
+    private final int aliveCount;
+    private final int animalCount;
+    private final int totalCreatures;
+    private final int foodCount;
+    private final List<String> events;
+
+    // Part of the board the grid shows
+    private final int viewX;
+    private final int viewY;
+    private final int scale;
+    private final int boardWidth;
+    private final int boardHeight;
+
+    Frame(int day, int tickInDay, int totalTick, char[][] grid, int aliveCount, int animalCount,
+            int totalCreatures, int foodCount, List<String> events,
+            int viewX, int viewY, int scale, int boardWidth, int boardHeight) {
+        this.day = day;
+        this.tickInDay = tickInDay;
+        this.totalTick = totalTick;
+        this.grid = grid;
+        this.aliveCount = aliveCount;
+        this.animalCount = animalCount;
+        this.totalCreatures = totalCreatures;
+        this.foodCount = foodCount;
+        this.events = events;
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.scale = scale;
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+    }
+
+    public int getDay() { return day; }
+    public int getTickInDay() { return tickInDay; }
+    public int getTotalTick() { return totalTick; }
+
+    /**
+     * @return What the cell shows: 'A', 'M', '•' for food or ' ' when empty
+     */
+    public char getCell(int x, int y) { return grid[y][x]; }
+
+    /**
+     * @return Width of the grid in screen cells
+     */
+    public int getWidth() { return grid.length == 0 ? 0 : grid[0].length; }
+
+    /**
+     * @return Height of the grid in screen cells
+     */
+    public int getHeight() { return grid.length; }
+
+    /**
+     * @return Board position of the top left screen cell
+     */
+    public int getViewX() { return viewX; }
+    public int getViewY() { return viewY; }
+
+    /**
+     * @return Board cells per screen cell in each direction
+     */
+    public int getScale() { return scale; }
+
+    public int getBoardWidth() { return boardWidth; }
+    public int getBoardHeight() { return boardHeight; }
+
+    /**
+     * @return true if the grid shows the whole board one cell per character
+     */
+    public boolean showsWholeBoard() {
+        return scale == 1 && viewX == 0 && viewY == 0 && getWidth() == boardWidth && getHeight() == boardHeight;
+    }
+
+    /**
+     * @return true if this frame shows exactly that part of the board at that size
+     */
+    boolean hasSameView(int otherViewX, int otherViewY, int otherScale, int otherWidth, int otherHeight) {
+        return viewX == otherViewX && viewY == otherViewY && scale == otherScale
+                && getWidth() == otherWidth && getHeight() == otherHeight;
+    }
+
+    public int getAliveCount() { return aliveCount; }
+    public int getAnimalCount() { return animalCount; }
+    public int getTotalCreatures() { return totalCreatures; }
+    public int getFoodCount() { return foodCount; }
+    public List<String> getEvents() { return events; }
+}
@@ -0,0 +1,117 @@
+package livingworld;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts nanosecond durations in log-linear buckets: every power of two is
+ * split into 16 buckets, so a percentile read back is within about 6% of the
+ * true value while recording stays a couple of shifts and a few ordered
+ * stores, with no lock. Only one thread may record. Others may read at any
+ * time without stopping it, so a read taken mid-record can be one value
+ * behind in some fields; reset() from another thread takes effect at the
+ * writer's next record, and reads see zeros until then.
+ */
+public class Histogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    // Slots of totals
+    private static final int COUNT = 0;
+    private static final int TOTAL = 1;
+    private static final int MAX = 2;
+
+    // Only the recording thread writes these, so a read and an ordered store
+    // stand in for an atomic increment
+    private final AtomicLongArray counts;
+    private final AtomicLongArray totals;
+    private volatile boolean resetPending;
+
+    public Histogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.totals = new AtomicLongArray(3);
+    }
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value); // At least SUB_BITS
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /**
+     * @return Largest value that falls in a bucket
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((mantissa + 1) << (exponent - SUB_BITS)) - 1;
+    }
+
+    /**
+     * Add a value. Must always be called from the same thread.
+     */
+    public void record(long nanos) {
+        if (resetPending) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                counts.lazySet(bucket, 0);
+            }
+            for (int i = 0; i < totals.length(); i++) {
+                totals.lazySet(i, 0);
+            }
+            resetPending = false;
+        }
+        int bucket = bucketOf(nanos);
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        totals.lazySet(TOTAL, totals.get(TOTAL) + nanos);
+        if (nanos > totals.get(MAX)) {
+            totals.lazySet(MAX, nanos);
+        }
+        totals.lazySet(COUNT, totals.get(COUNT) + 1);
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return Value that percentile of the recorded values are at or below, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long max = getMax();
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return resetPending ? 0 : totals.get(COUNT);
+    }
+
+    public long getMax() {
+        return resetPending ? 0 : totals.get(MAX);
+    }
+
+    public long getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : totals.get(TOTAL) / count;
+    }
+
+    /**
+     * Start counting from zero again; safe to call from any thread
+     */
+    public void reset() {
+        resetPending = true;
+    }
+}
@@ -0,0 +1,324 @@
+package livingworld;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import creatures.Creature;
+import creatures.NameTable;
+
+/**
+ * Append-only binary record of a run: every move, birth, death and food
+ * change, tick by tick, with a full keyframe every so many ticks so a
+ * Replay can start anywhere. Records are packed into buffers on the
+ * simulation thread and a background thread writes the filled buffers to
+ * the file, so the simulation never waits on the disk unless it gets
+ * several buffers ahead.
+ *
+ * After a header (magic "LWJN", format version) the file is a sequence of
+ * records, each a kind byte followed by unsigned varints:
+ * <pre>
+ * MOVE         id delta from the previous move this tick (zigzag), (dx + 1) * 3 + (dy + 1)
+ * MOVE_TO      id delta (zigzag), x, y; for jumps of more than one cell
+ * BIRTH        id, species, base name, generation, parent id + 1, health, hunger,
+ *              strength, replication chance, friendliness, x, y
+ * DEATH        id
+ * FOOD_ADDED   id, type, nutrition, x, y
+ * FOOD_REMOVED id
+ * STRING       length, UTF-8 bytes; names and food types refer to strings by
+ *              number, counting from the last keyframe
+ * TICK         tick; ends the records of that tick
+ * KEYFRAME     tick, 4 byte length, a checkpoint of the state at the end of that tick
+ * </pre>
+ */
+public class Journal implements WorldListener, SimulationObserver, AutoCloseable {
+    static final int MAGIC = 0x4C574A4E; // "LWJN"
+    static final int FORMAT_VERSION = 1;
+
+    static final byte MOVE = 1;
+    static final byte MOVE_TO = 2;
+    static final byte BIRTH = 3;
+    static final byte DEATH = 4;
+    static final byte FOOD_ADDED = 5;
+    static final byte FOOD_REMOVED = 6;
+    static final byte STRING = 7;
+    static final byte TICK = 8;
+    static final byte KEYFRAME = 9;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int BUFFERS = 4;
+    private static final int FLUSH_THRESHOLD = 64 * 1024; // Hand a buffer over at the end of a tick once this full
+    private static final int MAX_RECORD = 64; // Largest record apart from strings and keyframes
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final SimulationEngine engine;
+    private final World world;
+    private final int keyframeEvery;
+    private final boolean deltaMoves;
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final BlockingQueue<byte[]> empty;
+    private final Thread writer;
+    private volatile IOException failure;
+
+    // Buffer being filled; a plain array is the cheapest thing to append single bytes to
+    private byte[] buffer;
+    private int length;
+    private Map<String, Integer> strings;
+    private int lastMovedId;
+
+    /**
+     * Start journaling a simulation. The journal starts with a keyframe of the
+     * current state and follows the engine until it is closed.
+     * @param engine Engine to follow
+     * @param path File to write; replaced if it exists
+     * @param keyframeEvery Ticks between keyframes; fewer means faster seeking and a larger file
+     * @param deltaMoves true to store one-cell moves as a single byte instead of the new position
+     */
+    public Journal(SimulationEngine engine, Path path, int keyframeEvery, boolean deltaMoves) throws IOException {
+        this.engine = engine;
+        this.world = engine.getWorld();
+        this.keyframeEvery = keyframeEvery;
+        this.deltaMoves = deltaMoves;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.filled = new ArrayBlockingQueue<>(BUFFERS + 2);
+        this.empty = new ArrayBlockingQueue<>(BUFFERS);
+        for (int i = 0; i < BUFFERS; i++) {
+            empty.add(new byte[BUFFER_SIZE]);
+        }
+        this.strings = new HashMap<>();
+        this.buffer = takeEmpty();
+        this.writer = new Thread(this::write, "journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        putInt(MAGIC);
+        putInt(FORMAT_VERSION);
+        writeKeyframe();
+
+        world.addListener(this);
+        engine.addObserver(this);
+    }
+
+    @Override
+    public void creatureAdded(Creature creature) {
+        int name = stringId(NameTable.getName(creature.getNameId()));
+        ensure(MAX_RECORD);
+        put(BIRTH);
+        putVarint(creature.getId());
+        putVarint(creature.getSpeciesIndex());
+        putVarint(name);
+        putVarint(creature.getGeneration());
+        putVarint(creature.getParentId() + 1);
+        putVarint(creature.getHealth());
+        putVarint(creature.getHunger());
+        putVarint(creature.getStrength());
+        putVarint(creature.getReplicationChance());
+        putVarint(creature.getFriendliness());
+        putVarint(creature.getX());
+        putVarint(creature.getY());
+    }
+
+    @Override
+    public void creatureMoved(Creature creature, int oldX, int oldY) {
+        ensure(MAX_RECORD);
+        int id = creature.getId();
+        int dx = creature.getX() - oldX;
+        int dy = creature.getY() - oldY;
+        if (deltaMoves && dx >= -1 && dx <= 1 && dy >= -1 && dy <= 1) {
+            put(MOVE);
+            putVarint(zigzag(id - lastMovedId));
+            put((byte) ((dx + 1) * 3 + (dy + 1)));
+        } else {
+            put(MOVE_TO);
+            putVarint(zigzag(id - lastMovedId));
+            putVarint(creature.getX());
+            putVarint(creature.getY());
+        }
+        lastMovedId = id;
+    }
+
+    @Override
+    public void creatureDied(Creature creature) {
+        ensure(MAX_RECORD);
+        put(DEATH);
+        putVarint(creature.getId());
+    }
+
+    @Override
+    public void foodAdded(Food food) {
+        int type = stringId(food.getType());
+        ensure(MAX_RECORD);
+        put(FOOD_ADDED);
+        putVarint(food.getId());
+        putVarint(type);
+        putVarint(food.getNutritionValue());
+        putVarint(food.getX());
+        putVarint(food.getY());
+    }
+
+    @Override
+    public void foodRemoved(Food food) {
+        ensure(MAX_RECORD);
+        put(FOOD_REMOVED);
+        putVarint(food.getId());
+    }
+
+    @Override
+    public void tickCompleted(SimulationEngine engine) {
+        ensure(MAX_RECORD);
+        put(TICK);
+        putVarint(engine.getTick());
+        lastMovedId = 0;
+        if (engine.getTick() % keyframeEvery == 0) {
+            writeKeyframe();
+        }
+        if (length >= FLUSH_THRESHOLD) {
+            handOver();
+        }
+    }
+
+    /**
+     * Stop following the engine, write what is left and close the file
+     * @throws IOException If any write failed
+     */
+    @Override
+    public void close() throws IOException {
+        world.removeListener(this);
+        engine.removeObserver(this);
+        handOver();
+        putFilled(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeKeyframe() {
+        ByteBuffer keyframe = Checkpoint.encode(engine);
+        ensure(MAX_RECORD);
+        put(KEYFRAME);
+        putVarint(engine.getTick());
+        putInt(keyframe.remaining());
+        // The checkpoint goes to the writer as it is rather than being copied
+        handOver();
+        putFilled(keyframe);
+        strings.clear();
+    }
+
+    private int stringId(String string) {
+        Integer id = strings.get(string);
+        if (id == null) {
+            id = strings.size();
+            strings.put(string, id);
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            ensure(MAX_RECORD + utf8.length);
+            put(STRING);
+            putVarint(utf8.length);
+            System.arraycopy(utf8, 0, buffer, length, utf8.length);
+            length += utf8.length;
+        }
+        return id;
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.length - length < bytes) {
+            handOver();
+            if (buffer.length < bytes) {
+                // One-off buffer for an oversized record; the pooled one, still empty, goes back
+                empty.offer(buffer);
+                buffer = new byte[bytes];
+            }
+        }
+    }
+
+    /**
+     * Pass the current buffer to the writer and continue in an empty one
+     */
+    private void handOver() {
+        if (length == 0) {
+            return;
+        }
+        putFilled(ByteBuffer.wrap(buffer, 0, length));
+        buffer = takeEmpty();
+        length = 0;
+    }
+
+    private void putFilled(ByteBuffer filledBuffer) {
+        try {
+            filled.put(filledBuffer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private byte[] takeEmpty() {
+        try {
+            return empty.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new byte[BUFFER_SIZE];
+        }
+    }
+
+    private void write() {
+        while (true) {
+            ByteBuffer next;
+            try {
+                next = filled.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (next == END) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    while (next.hasRemaining()) {
+                        channel.write(next);
+                    }
+                }
+            } catch (IOException e) {
+                failure = e; // Reported by close(); buffers keep cycling so the simulation never blocks
+            }
+            if (next.hasArray() && next.array().length == BUFFER_SIZE) {
+                empty.offer(next.array());
+            }
+        }
+    }
+
+    private void put(byte value) {
+        buffer[length++] = value;
+    }
+
+    private void putInt(int value) {
+        buffer[length++] = (byte) (value >>> 24);
+        buffer[length++] = (byte) (value >>> 16);
+        buffer[length++] = (byte) (value >>> 8);
+        buffer[length++] = (byte) value;
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+}
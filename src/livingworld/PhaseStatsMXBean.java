@@ -0,0 +1,18 @@
+package livingworld;
+
+/**
+ * Timings of one phase of the tick, as seen over JMX
+ */
+public interface PhaseStatsMXBean {
+    long getCount();
+
+    long getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getMaxNanos();
+
+    void reset();
+}
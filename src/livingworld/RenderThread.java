@@ -0,0 +1,131 @@
+package livingworld;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws frames on their own thread so a slow terminal never holds up the
+ * simulation. Frames are handed over through a single slot: a frame that has
+ * not been drawn yet is replaced by the newer one, and at most
+ * framesPerSecond frames are drawn a second.
+ */
+public class RenderThread {
+    private final WorldVisualizer visualizer;
+    private final long frameNanos;
+    private final AtomicReference<Submission> pending;
+    private final AtomicLong droppedFrames;
+    private final Object drawnLock;
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile TickStats stats;
+    private long submitted;
+    private long drawn; // Submissions up to this one are on screen; guarded by drawnLock
+
+    /**
+     * @param visualizer Visualizer the frames are drawn with; only this thread may draw with it
+     * @param framesPerSecond Most frames to draw per second
+     */
+    public RenderThread(WorldVisualizer visualizer, double framesPerSecond) {
+        this.visualizer = visualizer;
+        this.frameNanos = (long) (TimeUnit.SECONDS.toNanos(1) / framesPerSecond);
+        this.pending = new AtomicReference<>();
+        this.droppedFrames = new AtomicLong();
+        this.drawnLock = new Object();
+        this.thread = new Thread(this::run, "render");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Hand a frame over for drawing without waiting for it to be drawn
+     */
+    public void submit(Frame frame) {
+        submitted++;
+        if (pending.getAndSet(new Submission(frame, submitted)) != null) {
+            droppedFrames.incrementAndGet();
+        }
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Wait until the last submitted frame is on screen, e.g. before printing a prompt below it
+     */
+    public void flush() throws InterruptedException {
+        synchronized (drawnLock) {
+            while (drawn < submitted && thread.isAlive()) {
+                drawnLock.wait(100);
+            }
+        }
+    }
+
+    /**
+     * Draw the frame still waiting, if any, and end the thread
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+
+    /**
+     * @param stats Where to record how long each frame takes to draw, or null
+     */
+    public void setStats(TickStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * @return Frames replaced by a newer one before they could be drawn
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    private void run() {
+        while (running || pending.get() != null) {
+            Submission next = pending.getAndSet(null);
+            if (next == null) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            long drawStart = System.nanoTime();
+            long nextFrame = drawStart + frameNanos;
+            visualizer.draw(next.frame);
+            TickStats drawStats = stats;
+            if (drawStats != null) {
+                drawStats.record(TickStats.Phase.DRAW, drawStart);
+            }
+            synchronized (drawnLock) {
+                drawn = next.sequence;
+                drawnLock.notifyAll();
+            }
+
+            // Frames arriving until the next one is due replace each other in the slot
+            long remaining;
+            while (running && (remaining = nextFrame - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+    }
+
+    /**
+     * A frame and how many frames had been submitted when it was, so
+     * flush() also waits for a redraw of the same tick, e.g. after scrolling
+     */
+    private static final class Submission {
+        private final Frame frame;
+        private final long sequence;
+
+        Submission(Frame frame, long sequence) {
+            this.frame = frame;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package livingworld;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import creatures.Animal;
+import creatures.Creature;
+import creatures.Monster;
+
+/**
+ * Plays a Journal back into a World without simulating anything. Seeking
+ * starts from the nearest keyframe at or before the wanted tick and applies
+ * the recorded changes from there. Positions, births, deaths and food match
+ * the original run at every tick; other creature stats are only exact at
+ * keyframes, as the journal does not record every change to them.
+ */
+public class Replay {
+    private static final byte BORN = 0;
+    private static final byte DIED = 1;
+    private static final byte FOOD_SPAWNED = 2;
+    private static final byte FOOD_EATEN = 3;
+
+    private final ByteBuffer data;
+    private final int[] keyframeTicks;
+    private final int[] keyframeOffsets;
+    private final int firstTick;
+    private final int lastTick;
+    private final int end; // Offset just after the last complete tick
+
+    private World world;
+    private int tick;
+    private Map<Integer, Creature> creatures;
+    private Map<Integer, Food> food;
+    private List<String> strings;
+    private int lastMovedId;
+
+    // This tick's changes, formatted only when asked for
+    private List<Byte> changeKinds;
+    private List<Object> changes;
+
+    private Replay(ByteBuffer data, List<int[]> keyframes, int lastTick, int end) {
+        this.data = data;
+        this.keyframeTicks = new int[keyframes.size()];
+        this.keyframeOffsets = new int[keyframes.size()];
+        for (int i = 0; i < keyframes.size(); i++) {
+            keyframeTicks[i] = keyframes.get(i)[0];
+            keyframeOffsets[i] = keyframes.get(i)[1];
+        }
+        this.firstTick = keyframeTicks[0];
+        this.lastTick = lastTick;
+        this.end = end;
+        this.strings = new ArrayList<>();
+        this.changeKinds = new ArrayList<>();
+        this.changes = new ArrayList<>();
+    }
+
+    /**
+     * Open a journal and position the replay at its first tick. A journal cut
+     * short, e.g. by a crash, plays up to its last complete tick.
+     * @param path File written by a Journal
+     */
+    public static Replay open(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.remaining() < 8 || data.getInt() != Journal.MAGIC) {
+            throw new IOException(path + " is not a journal");
+        }
+        int version = data.getInt();
+        if (version != Journal.FORMAT_VERSION) {
+            throw new IOException(path + " has journal format " + version + ", expected " + Journal.FORMAT_VERSION);
+        }
+
+        // Find the keyframes and the last complete tick
+        List<int[]> keyframes = new ArrayList<>();
+        int lastTick = -1;
+        int end = data.position();
+        try {
+            while (data.hasRemaining()) {
+                int start = data.position();
+                byte kind = data.get();
+                if (kind == Journal.TICK) {
+                    lastTick = getVarint(data);
+                    end = data.position();
+                } else if (kind == Journal.KEYFRAME) {
+                    int keyframeTick = getVarint(data);
+                    int length = data.getInt();
+                    data.position(Math.addExact(data.position(), length));
+                    keyframes.add(new int[] {keyframeTick, start});
+                    lastTick = Math.max(lastTick, keyframeTick);
+                    end = data.position();
+                } else {
+                    skipRecord(kind, data);
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | ArithmeticException e) {
+            // Cut short in the middle of a record; keep what came before
+        }
+        if (keyframes.isEmpty()) {
+            throw new IOException(path + " has no keyframe to start from");
+        }
+
+        Replay replay = new Replay(data, keyframes, lastTick, end);
+        replay.seek(replay.firstTick);
+        return replay;
+    }
+
+    /**
+     * Move to the end of a tick, loading the nearest keyframe before it unless
+     * playing on from the current tick is quicker
+     * @param target Tick to move to; clamped to the ticks in the journal
+     */
+    public void seek(int target) throws IOException {
+        target = Math.max(firstTick, Math.min(lastTick, target));
+        int keyframe = 0;
+        while (keyframe + 1 < keyframeTicks.length && keyframeTicks[keyframe + 1] <= target) {
+            keyframe++;
+        }
+        if (world == null || target < tick || keyframeTicks[keyframe] > tick) {
+            loadKeyframe(keyframe);
+        }
+        while (tick < target && next()) {
+            // Play forward to the target
+        }
+    }
+
+    /**
+     * Apply the next tick's changes
+     * @return false if the journal has no more complete ticks
+     */
+    public boolean next() throws IOException {
+        if (data.position() >= end) {
+            return false;
+        }
+        world.clearChanges();
+        changeKinds.clear();
+        changes.clear();
+        lastMovedId = 0;
+        try {
+            while (data.position() < end) {
+                byte kind = data.get();
+                if (kind == Journal.TICK) {
+                    tick = getVarint(data);
+                    world.reclaim();
+                    return true;
+                }
+                apply(kind);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Journal is corrupt near offset " + data.position(), e);
+        }
+        return false;
+    }
+
+    private void loadKeyframe(int index) throws IOException {
+        data.position(keyframeOffsets[index]);
+        data.get(); // KEYFRAME
+        getVarint(data);
+        int length = data.getInt();
+        ByteBuffer checkpoint = data.slice(data.position(), length);
+        data.position(data.position() + length);
+
+        SimulationEngine engine = Checkpoint.decode(checkpoint);
+        world = engine.getWorld();
+        tick = engine.getTick();
+        creatures = new HashMap<>();
+        for (Creature creature : world.getCreatures()) {
+            creatures.put(creature.getId(), creature);
+        }
+        food = new HashMap<>();
+        for (Food item : world.getFood()) {
+            food.put(item.getId(), item);
+        }
+        strings.clear();
+        changeKinds.clear();
+        changes.clear();
+    }
+
+    private void apply(byte kind) throws IOException {
+        switch (kind) {
+            case Journal.MOVE: {
+                Creature creature = movedCreature();
+                int packed = data.get();
+                creature.setPosition(creature.getX() + packed / 3 - 1, creature.getY() + packed % 3 - 1);
+                break;
+            }
+            case Journal.MOVE_TO: {
+                Creature creature = movedCreature();
+                creature.setPosition(getVarint(data), getVarint(data));
+                break;
+            }
+            case Journal.BIRTH: {
+                int id = getVarint(data);
+                int species = getVarint(data);
+                String name = strings.get(getVarint(data));
+                Creature creature = species == 0 ? new Animal(name) : new Monster(name);
+                creature.setGeneration(getVarint(data));
+                creature.setParentId(getVarint(data) - 1);
+                creature.setHealth(getVarint(data));
+                creature.setHunger(getVarint(data));
+                creature.setStrength(getVarint(data));
+                creature.setReplicationChance(getVarint(data));
+                creature.setFriendliness(getVarint(data));
+                creature.setPosition(getVarint(data), getVarint(data));
+                world.addCreature(creature);
+                creature.setId(id);
+                creatures.put(id, creature);
+                change(BORN, creature);
+                break;
+            }
+            case Journal.DEATH: {
+                Creature creature = creatures.remove(getVarint(data));
+                if (creature != null) {
+                    creature.die();
+                    change(DIED, creature);
+                }
+                break;
+            }
+            case Journal.FOOD_ADDED: {
+                int id = getVarint(data);
+                Food item = new Food(strings.get(getVarint(data)), getVarint(data));
+                item.setId(id);
+                item.setPosition(getVarint(data), getVarint(data));
+                world.placeFood(item);
+                food.put(id, item);
+                change(FOOD_SPAWNED, item);
+                break;
+            }
+            case Journal.FOOD_REMOVED: {
+                Food item = food.remove(getVarint(data));
+                if (item != null) {
+                    item.consume();
+                    change(FOOD_EATEN, item);
+                }
+                break;
+            }
+            case Journal.STRING: {
+                byte[] utf8 = new byte[getVarint(data)];
+                data.get(utf8);
+                strings.add(new String(utf8, StandardCharsets.UTF_8));
+                break;
+            }
+            case Journal.KEYFRAME: {
+                // Passing a keyframe while playing on: skip it, but strings are numbered afresh after it
+                getVarint(data);
+                int length = data.getInt();
+                data.position(data.position() + length);
+                strings.clear();
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record " + kind + " at offset " + (data.position() - 1));
+        }
+    }
+
+    private Creature movedCreature() throws IOException {
+        int id = lastMovedId + unzigzag(getVarint(data));
+        lastMovedId = id;
+        Creature creature = creatures.get(id);
+        if (creature == null) {
+            throw new IOException("Journal moves unknown creature " + id);
+        }
+        return creature;
+    }
+
+    private void change(byte kind, Object subject) {
+        changeKinds.add(kind);
+        changes.add(subject);
+    }
+
+    /**
+     * Skip over a record without applying it
+     */
+    private static void skipRecord(byte kind, ByteBuffer in) {
+        switch (kind) {
+            case Journal.MOVE:
+                getVarint(in);
+                in.get();
+                break;
+            case Journal.MOVE_TO:
+                skipVarints(in, 3);
+                break;
+            case Journal.BIRTH:
+                skipVarints(in, 12);
+                break;
+            case Journal.DEATH:
+            case Journal.FOOD_REMOVED:
+                getVarint(in);
+                break;
+            case Journal.FOOD_ADDED:
+                skipVarints(in, 5);
+                break;
+            case Journal.STRING:
+                int length = getVarint(in);
+                in.position(in.position() + length);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown journal record " + kind);
+        }
+    }
+
+    private static void skipVarints(ByteBuffer in, int count) {
+        for (int i = 0; i < count; i++) {
+            getVarint(in);
+        }
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @param limit Most lines to return
+     * @return The last changes of the current tick as text, oldest first
+     */
+    public List<String> getRecentEvents(int limit) {
+        List<String> lines = new ArrayList<>();
+        for (int i = Math.max(0, changes.size() - limit); i < changes.size(); i++) {
+            Object subject = changes.get(i);
+            switch (changeKinds.get(i)) {
+                case BORN:
+                    lines.add(((Creature) subject).getName() + " was born!");
+                    break;
+                case DIED:
+                    lines.add(((Creature) subject).getName() + " died!");
+                    break;
+                case FOOD_SPAWNED:
+                    lines.add("Food spawned in the world!");
+                    break;
+                default:
+                    lines.add(((Food) subject).getType() + " was eaten!");
+                    break;
+            }
+        }
+        return lines;
+    }
+
+    public World getWorld() { return world; }
+
+    public int getTick() { return tick; }
+
+    public int getFirstTick() { return firstTick; }
+
+    public int getLastTick() { return lastTick; }
+}
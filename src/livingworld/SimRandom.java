@@ -0,0 +1,73 @@
+package livingworld;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Seedable SplitMix64 generator used for every random decision in the
+ * simulation. Each phase draws from its own stream derived from the world
+ * seed, so a run is reproducible from that one number, and the generator
+ * state is a single plain long: no allocation and no atomic updates per draw.
+ */
+public final class SimRandom implements RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public SimRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Create the stream for one part of the simulation
+     * @param seed World seed
+     * @param stream Id of the stream, e.g. one per phase
+     * @return Generator whose sequence only depends on seed and stream
+     */
+    public static SimRandom derive(long seed, long stream) {
+        return new SimRandom(mix64(seed ^ mix64(stream * GOLDEN_GAMMA)));
+    }
+
+    /**
+     * @return A seed for a new run when none was given
+     */
+    public static long randomSeed() {
+        return mix64(System.nanoTime() ^ System.currentTimeMillis() * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Stateless draw for one entity at one point in time. Lets work be split
+     * across threads in any way without changing the numbers each entity gets.
+     * @param seed Seed of the stream
+     * @param round Counter that advances each time the phase runs, e.g. the tick
+     * @param key Entity the number is for, e.g. a creature id
+     * @return 64 random bits determined only by the three arguments
+     */
+    public static long hash(long seed, long round, long key) {
+        return mix64(mix64(seed ^ (round * GOLDEN_GAMMA)) ^ (key * 0xc2b2ae3d27d4eb4fL));
+    }
+
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    /**
+     * Split off an independent generator, advancing this one
+     */
+    public SimRandom split() {
+        return new SimRandom(nextLong());
+    }
+
+    public long getState() { return state; }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
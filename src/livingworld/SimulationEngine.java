@@ -0,0 +1,525 @@
+package livingworld;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import creatures.Creature;
+import creatures.Animal;
+import creatures.Combat;
+import creatures.Monster;
+
+/**
+ * Runs the simulation tick by tick without any terminal input or delays.
+ * Rendering and other side effects are attached as observers.
+ */
+public class SimulationEngine {
+    public static final int TICKS_PER_DAY = 24;
+
+    /**
+     * SINGLE resolves at most one random nearby pair per tick. BATCHED picks
+     * as many disjoint nearby pairs as possible and resolves them in parallel.
+     */
+    public enum EncounterMode { SINGLE, BATCHED }
+
+    private static final int PARALLEL_ENCOUNTERS = 64; // Encounters per parallel task; smaller batches stay on one thread
+    private static final int EVENT_CAPACITY = 4096; // Recent events kept in the log
+    static final int FEEDING_DISTANCE = 2; // Creatures eat the nearest food up to this many cells away
+    static final int MEAL_HEALTH = 10; // Health a meal gives back
+
+    // Event types shown as text; the fight result already says who died
+    private static final Set<EventType> NARRATED_EVENTS = EnumSet.complementOf(EnumSet.of(EventType.DEATH));
+
+    private World world;
+    private SimRandom random; // encounter selection and outcomes
+    private SimRandom foodRandom;
+    private List<SimulationObserver> observers;
+    private EventLog eventLog;
+    private long tickEvents; // Sequence number of this tick's first event
+    private List<Creature> nearbyPairs;
+    private int tick;
+    private EncounterMode encounterMode = EncounterMode.SINGLE;
+    private long batchSeed;
+    private int[] pairOrder;
+    private BitSet matched;
+
+    private double encounterChance = 0.30;
+    private double foodSpawnChance = 0.30;
+    private double reproductionChance = 0.5; // 50% reproduction chance when two same-type creatures meet
+    private int encounterDistance = 3; // up to 3 cells away (more encounters)
+    private TickStats stats; // null unless timings are wanted
+
+    // Random streams derived from the world seed; World uses the lower ids
+    private static final int STREAM_ENCOUNTERS = 16;
+    private static final int STREAM_FOOD = 17;
+    private static final int STREAM_BATCHED_ENCOUNTERS = 18;
+
+    public SimulationEngine(World world) {
+        this.world = world;
+        this.random = SimRandom.derive(world.getSeed(), STREAM_ENCOUNTERS);
+        this.foodRandom = SimRandom.derive(world.getSeed(), STREAM_FOOD);
+        this.observers = new ArrayList<>();
+        this.eventLog = new EventLog(EVENT_CAPACITY);
+        this.tickEvents = 0;
+        this.nearbyPairs = new ArrayList<>();
+        this.tick = 0;
+        this.batchSeed = SimRandom.derive(world.getSeed(), STREAM_BATCHED_ENCOUNTERS).nextLong();
+        this.pairOrder = new int[0];
+        this.matched = new BitSet();
+    }
+
+    public void addObserver(SimulationObserver observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(SimulationObserver observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Run a fixed number of ticks as fast as possible
+     * @param ticks Number of ticks to simulate
+     */
+    public void run(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Keep simulating until the condition holds
+     * @param condition Checked before every tick
+     */
+    public void runUntil(Predicate<SimulationEngine> condition) {
+        while (!condition.test(this)) {
+            step();
+        }
+    }
+
+    /**
+     * Simulate a single tick: movement, encounters, births, feeding and food spawning
+     */
+    public void step() {
+        TickStats stats = this.stats;
+        long tickStart = stats != null ? System.nanoTime() : 0;
+        long phaseStart = tickStart;
+
+        beginTick();
+
+        world.updatePositions();
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.MOVEMENT, phaseStart);
+        }
+
+        List<Creature> newCreatures = new ArrayList<>();
+
+        List<Creature> aliveCreatures = new ArrayList<>();
+        for (Creature c : world.getCreatures()) {
+            if (c.isAlive()) {
+                aliveCreatures.add(c);
+            }
+        }
+
+        // Check for encounters based on proximity (creatures touching or very close)
+        long examined = findNearbyCreatures(world, encounterDistance, nearbyPairs);
+        int pairCount = nearbyPairs.size() / 2;
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.DETECTION, phaseStart);
+            stats.count(TickStats.Counter.PAIRS_EXAMINED, examined);
+        }
+
+        if (encounterMode == EncounterMode.BATCHED) {
+            for (Encounter encounter : resolveBatchedEncounters(pairCount)) {
+                reportEncounter(encounter, newCreatures);
+            }
+        } else {
+            int pairIndex = pickEncounter(pairCount);
+            if (pairIndex >= 0) {
+                meet(nearbyPairs.get(pairIndex * 2), nearbyPairs.get(pairIndex * 2 + 1), newCreatures);
+            }
+        }
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.ENCOUNTERS, phaseStart);
+        }
+
+        // Add new creatures, as many as fit
+        int born = world.addCreatures(newCreatures);
+        for (int i = 0; i < born; i++) {
+            eventLog.record(tick, EventType.BIRTH, EventLog.BIRTH_ADDED, newCreatures.get(i), null, null, 0);
+        }
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.BIRTHS, phaseStart);
+            stats.count(TickStats.Counter.BIRTHS, born);
+        }
+
+        int meals = feedCreatures(aliveCreatures);
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.FEEDING, phaseStart);
+            stats.count(TickStats.Counter.MEALS, meals);
+        }
+
+        spawnFood();
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.FOOD_SPAWN, phaseStart);
+        }
+
+        world.reclaim();
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.RECLAIM, phaseStart);
+        }
+
+        endTick();
+        if (stats != null) {
+            stats.record(TickStats.Phase.OBSERVERS, phaseStart);
+            stats.recordTick(tickStart);
+        }
+    }
+
+    // The phases of a tick that a partitioned run (see StripCoordinator) drives
+    // itself, with the creatures spread over worker processes
+
+    void beginTick() {
+        tick++;
+        tickEvents = eventLog.getNextSequence();
+    }
+
+    /**
+     * Decide whether a single encounter happens this tick, and between which pair
+     * @param pairCount Number of nearby pairs found this tick
+     * @return Index of the pair that meets, or -1 if there is no encounter
+     */
+    int pickEncounter(int pairCount) {
+        if (pairCount > 0 && random.nextDouble() < encounterChance) {
+            return random.nextInt(pairCount);
+        }
+        return -1;
+    }
+
+    /**
+     * Resolve and record the encounter picked by pickEncounter()
+     * @param newCreatures Receives the offspring, if any
+     */
+    void meet(Creature creature1, Creature creature2, List<Creature> newCreatures) {
+        reportEncounter(resolveEncounter(creature1, creature2, random), newCreatures);
+    }
+
+    /**
+     * @return The food spawned this tick, or null if none was
+     */
+    Food spawnFood() {
+        if (foodRandom.nextDouble() < foodSpawnChance) {
+            Food spawned = world.spawnFood();
+            if (spawned != null) {
+                eventLog.record(tick, EventType.FOOD_SPAWN, 0, null, null, spawned, 0);
+            }
+            return spawned;
+        }
+        return null;
+    }
+
+    void endTick() {
+        for (SimulationObserver observer : observers) {
+            observer.tickCompleted(this);
+        }
+        // Observers have seen this tick's changed cells; anything changed
+        // before the next tick counts towards that tick
+        world.clearChanges();
+    }
+
+    /**
+     * Outcome of one meeting between two creatures
+     */
+    private static final class Encounter {
+        private final Creature creature1;
+        private final Creature creature2;
+        private final Combat.Outcome fight; // null when the creatures did not fight
+        private final Creature offspring;
+
+        Encounter(Creature creature1, Creature creature2, Combat.Outcome fight, Creature offspring) {
+            this.creature1 = creature1;
+            this.creature2 = creature2;
+            this.fight = fight;
+            this.offspring = offspring;
+        }
+    }
+
+    /**
+     * Pick a maximal set of disjoint nearby pairs and resolve them all. Pairs
+     * are visited in a random order and taken greedily when neither creature
+     * is already matched; each taken pair then meets with encounterChance.
+     * No creature is in two encounters, so they can be resolved in parallel.
+     * @param pairCount Number of pairs in nearbyPairs
+     * @return Resolved encounters, in a deterministic order
+     */
+    private List<Encounter> resolveBatchedEncounters(int pairCount) {
+        if (pairOrder.length < pairCount) {
+            pairOrder = new int[Math.max(pairCount, pairOrder.length * 2)];
+        }
+        for (int i = 0; i < pairCount; i++) {
+            pairOrder[i] = i;
+        }
+        // Fisher-Yates shuffle of the pair indexes
+        for (int i = pairCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = pairOrder[i];
+            pairOrder[i] = pairOrder[j];
+            pairOrder[j] = swap;
+        }
+
+        List<Creature> selected = new ArrayList<>();
+        for (int i = 0; i < pairCount; i++) {
+            Creature creature1 = nearbyPairs.get(pairOrder[i] * 2);
+            Creature creature2 = nearbyPairs.get(pairOrder[i] * 2 + 1);
+            if (matched.get(creature1.getId()) || matched.get(creature2.getId())) {
+                continue;
+            }
+            matched.set(creature1.getId());
+            matched.set(creature2.getId());
+            if (random.nextDouble() < encounterChance) {
+                selected.add(creature1);
+                selected.add(creature2);
+            }
+        }
+        matched.clear();
+
+        // The world's listener methods are not thread-safe, so the creatures report
+        // nothing while they are resolved and the world catches up in order afterwards
+        for (Creature creature : selected) {
+            creature.setListener(null);
+        }
+        int encounterCount = selected.size() / 2;
+        Encounter[] encounters = new Encounter[encounterCount];
+        int taskCount = (encounterCount + PARALLEL_ENCOUNTERS - 1) / PARALLEL_ENCOUNTERS;
+        IntStream tasks = IntStream.range(0, taskCount);
+        if (taskCount > 1) {
+            tasks = tasks.parallel();
+        }
+        tasks.forEach(task -> {
+            // One generator per task, reseeded for each encounter so the result
+            // does not depend on thread scheduling
+            SimRandom encounterRandom = new SimRandom(0);
+            int end = Math.min(encounterCount, (task + 1) * PARALLEL_ENCOUNTERS);
+            for (int i = task * PARALLEL_ENCOUNTERS; i < end; i++) {
+                encounterRandom.setState(SimRandom.hash(batchSeed, tick, i));
+                encounters[i] = resolveEncounter(selected.get(i * 2), selected.get(i * 2 + 1), encounterRandom);
+            }
+        });
+        for (Creature creature : selected) {
+            world.reattach(creature);
+        }
+        return List.of(encounters);
+    }
+
+    /**
+     * Let two creatures meet: same types may reproduce, different types fight
+     * to the death. Only touches the two creatures and the offspring, so
+     * disjoint pairs can be resolved concurrently.
+     */
+    private Encounter resolveEncounter(Creature creature1, Creature creature2, RandomGenerator random) {
+        // Check if same type (both Animal or both Monster)
+        boolean sameType = creature1.getType().equals(creature2.getType());
+
+        if (sameType) {
+            // Same type: reproduction only (no attack) - requires BOTH creatures
+            if (random.nextDouble() < reproductionChance) {
+                // Named after the first parent, one generation on
+                Creature offspring;
+                if (creature1.getType().equals("Animal")) {
+                    offspring = new Animal(creature1, random);
+                } else {
+                    offspring = new Monster(creature1, random);
+                }
+
+                int newX, newY;
+                double positionRoll = random.nextDouble();
+                if (positionRoll < 0.33) {
+                    newX = creature1.getX();
+                    newY = creature1.getY();
+                } else if (positionRoll < 0.66) {
+                    newX = creature2.getX();
+                    newY = creature2.getY();
+                } else {
+                    int parentX = (creature1.getX() + creature2.getX()) / 2;
+                    int parentY = (creature1.getY() + creature2.getY()) / 2;
+                    int offsetX = random.nextInt(3) - 1; // -1 to +1
+                    int offsetY = random.nextInt(3) - 1;
+                    newX = Math.max(0, Math.min(world.getBoardWidth() - 1, parentX + offsetX));
+                    newY = Math.max(0, Math.min(world.getBoardHeight() - 1, parentY + offsetY));
+                }
+                offspring.setPosition(newX, newY);
+                return new Encounter(creature1, creature2, null, offspring);
+            }
+            return new Encounter(creature1, creature2, null, null);
+        }
+
+        // Different creature types: attack only
+        return new Encounter(creature1, creature2, Combat.fight(creature1, creature2), null);
+    }
+
+    private void reportEncounter(Encounter encounter, List<Creature> newCreatures) {
+        Creature creature1 = encounter.creature1;
+        Creature creature2 = encounter.creature2;
+        eventLog.record(tick, EventType.ENCOUNTER, EventLog.ENCOUNTER_MET, creature1, creature2, null, 0);
+        if (stats != null) {
+            stats.count(TickStats.Counter.ENCOUNTERS, 1);
+        }
+
+        if (encounter.fight == null) {
+            if (encounter.offspring != null) {
+                newCreatures.add(encounter.offspring);
+                eventLog.record(tick, EventType.BIRTH, EventLog.BIRTH_CONCEIVED, encounter.offspring, creature1, null, 0);
+            } else {
+                eventLog.record(tick, EventType.ENCOUNTER, EventLog.ENCOUNTER_NO_OFFSPRING, creature1, creature2, null, 0);
+            }
+            return;
+        }
+
+        eventLog.record(tick, EventType.ENCOUNTER, EventLog.ENCOUNTER_FIGHT, creature1, creature2, null, 0);
+        eventLog.record(tick, EventType.FIGHT_RESULT, encounter.fight.ordinal(), creature1, creature2, null, 0);
+        int deaths = 0;
+        if (!creature1.isAlive()) {
+            eventLog.record(tick, EventType.DEATH, 0, creature1, creature2, null, 0);
+            deaths++;
+        }
+        if (!creature2.isAlive()) {
+            eventLog.record(tick, EventType.DEATH, 0, creature2, creature1, null, 0);
+            deaths++;
+        }
+        if (stats != null) {
+            stats.count(TickStats.Counter.DEATHS, deaths);
+        }
+    }
+
+    /**
+     * Check for food consumption: every creature within FEEDING_DISTANCE of food eats the nearest one
+     * @param creatures Creatures that were alive at the start of the tick
+     * @return Number of creatures that ate
+     */
+    int feedCreatures(List<Creature> creatures) {
+        return feedCreatures(creatures, null);
+    }
+
+    /**
+     * @param fed Receives the creatures that ate, if not null
+     */
+    int feedCreatures(List<Creature> creatures, List<Creature> fed) {
+        int meals = 0;
+        for (Creature creature : creatures) {
+            Food food = world.findNearestFood(creature.getX(), creature.getY(), FEEDING_DISTANCE);
+            if (food != null) {
+                int nutrition = food.consume();
+                if (nutrition > 0) {
+                    creature.heal(MEAL_HEALTH);
+                    eventLog.record(tick, EventType.ATE, 0, creature, null, food, MEAL_HEALTH);
+                    meals++;
+                    if (fed != null) {
+                        fed.add(creature);
+                    }
+                }
+            }
+        }
+        return meals;
+    }
+
+    /**
+     * Find pairs of creatures that are near each other on the board
+     * @param world World whose proximity index is searched
+     * @param maxDistance Maximum distance (in cells) for creatures to be considered "nearby"
+     * @param nearbyPairs Reused list that is filled with pairs as consecutive entries (2k and 2k + 1)
+     * @return Number of pairs whose distance was checked
+     */
+    static long findNearbyCreatures(World world, int maxDistance, List<Creature> nearbyPairs) {
+        nearbyPairs.clear();
+        return world.forEachNearbyPair(maxDistance, (c1, c2) -> {
+            nearbyPairs.add(c1);
+            nearbyPairs.add(c2);
+        });
+    }
+
+    public World getWorld() { return world; }
+
+    // Random stream state for checkpoints
+
+    long getEncounterState() { return random.getState(); }
+
+    long getFoodState() { return foodRandom.getState(); }
+
+    /**
+     * Continue from a saved tick; the world must already hold the saved state
+     */
+    void restore(int tick, long encounterState, long foodState) {
+        this.tick = tick;
+        this.random.setState(encounterState);
+        this.foodRandom.setState(foodState);
+    }
+
+    public int getTick() { return tick; }
+
+    public int getDay() { return (tick - 1) / TICKS_PER_DAY + 1; }
+
+    public int getTickInDay() { return ((tick - 1) % TICKS_PER_DAY) + 1; }
+
+    /**
+     * @return Log every event is recorded in; subscribe to it to follow events as they happen
+     */
+    public EventLog getEventLog() { return eventLog; }
+
+    /**
+     * @return This tick's events as text. The text is only built by this call,
+     * so runs nobody watches never pay for it.
+     */
+    public List<String> getEvents() {
+        return getRecentEvents(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param limit Most lines to return
+     * @return The last events of this tick as text, oldest first
+     */
+    public List<String> getRecentEvents(int limit) {
+        return eventLog.format(tickEvents, eventLog.getNextSequence(), NARRATED_EVENTS, limit);
+    }
+
+    public EncounterMode getEncounterMode() { return encounterMode; }
+
+    public void setEncounterMode(EncounterMode encounterMode) {
+        this.encounterMode = encounterMode;
+    }
+
+    public double getEncounterChance() { return encounterChance; }
+
+    public void setEncounterChance(double encounterChance) {
+        this.encounterChance = encounterChance;
+    }
+
+    public double getFoodSpawnChance() { return foodSpawnChance; }
+
+    public void setFoodSpawnChance(double foodSpawnChance) {
+        this.foodSpawnChance = foodSpawnChance;
+    }
+
+    public double getReproductionChance() { return reproductionChance; }
+
+    public void setReproductionChance(double reproductionChance) {
+        this.reproductionChance = reproductionChance;
+    }
+
+    public int getEncounterDistance() { return encounterDistance; }
+
+    public void setEncounterDistance(int encounterDistance) {
+        this.encounterDistance = encounterDistance;
+    }
+
+    public TickStats getStats() { return stats; }
+
+    /**
+     * @param stats Where to record phase timings and counts from the next tick on, or null to stop
+     */
+    public void setStats(TickStats stats) {
+        this.stats = stats;
+    }
+}
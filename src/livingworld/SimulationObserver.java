@@ -0,0 +1,5 @@
+package livingworld;
+
+public interface SimulationObserver {
+    public void tickCompleted(SimulationEngine engine);
+}
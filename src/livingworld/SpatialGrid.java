@@ -0,0 +1,240 @@
+package livingworld;
+
+import java.util.List;
+import java.util.function.Consumer;
+import creatures.Creature;
+
+/**
+ * Buckets creatures into square cells so proximity queries only have to look
+ * at the cells around a point instead of at every creature on the board.
+ * Cells are grouped into chunks that only exist while creatures are in them
+ * (see ChunkedBuckets), so a large, sparsely populated board costs little
+ * more than its occupied chunks, in memory and per tick alike.
+ */
+public class SpatialGrid {
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final ChunkedBuckets<Creature> cells;
+
+    public interface PairVisitor {
+        public void visit(Creature first, Creature second);
+    }
+
+    /**
+     * @param cellSize Side of a cell in board cells
+     * @param chunkShift log2 of the side of a chunk in cells
+     */
+    public SpatialGrid(int width, int height, int cellSize, int chunkShift) {
+        this.cellSize = cellSize;
+        this.columns = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.cells = new ChunkedBuckets<>(columns, rows, chunkShift);
+    }
+
+    private int cellX(int x) {
+        return Math.max(0, Math.min(columns - 1, x / cellSize));
+    }
+
+    private int cellY(int y) {
+        return Math.max(0, Math.min(rows - 1, y / cellSize));
+    }
+
+    public void insert(Creature creature) {
+        cells.add(cellX(creature.getX()), cellY(creature.getY()), creature);
+    }
+
+    public void remove(Creature creature) {
+        cells.remove(cellX(creature.getX()), cellY(creature.getY()), creature);
+    }
+
+    /**
+     * Moves a creature to the bucket for its current position
+     * @param creature Creature that has already been moved
+     * @param oldX X position the creature was indexed under
+     * @param oldY Y position the creature was indexed under
+     */
+    public void move(Creature creature, int oldX, int oldY) {
+        int fromX = cellX(oldX);
+        int fromY = cellY(oldY);
+        int toX = cellX(creature.getX());
+        int toY = cellY(creature.getY());
+        if (fromX != toX || fromY != toY) {
+            // Add before removing so a lone creature moving within its chunk doesn't put it to sleep
+            cells.add(toX, toY, creature);
+            cells.remove(fromX, fromY, creature);
+        }
+    }
+
+    /**
+     * Visit every alive creature, bucket by bucket in index order
+     */
+    public void forEach(Consumer<Creature> action) {
+        cells.forEachBucket((cx, cy, bucket) -> {
+            for (Creature creature : bucket) {
+                if (creature.isAlive()) {
+                    action.accept(creature);
+                }
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * Visit the alive creatures in the cell columns within [fromColumn, toColumn),
+     * bucket by bucket in index order
+     */
+    public void forEachIn(int fromColumn, int toColumn, Consumer<Creature> action) {
+        int from = Math.max(0, fromColumn);
+        int to = Math.min(columns, toColumn);
+        for (int cy = 0; cy < rows; cy++) {
+            for (int cx = from; cx < to; cx++) {
+                List<Creature> bucket = cells.get(cx, cy);
+                if (bucket == null) continue;
+                for (Creature creature : bucket) {
+                    if (creature.isAlive()) {
+                        action.accept(creature);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit the alive creatures positioned within [fromX, toX) x [fromY, toY),
+     * looking only at the buckets that overlap the area
+     */
+    public void forEachInArea(int fromX, int fromY, int toX, int toY, Consumer<Creature> action) {
+        cells.forEachBucketIn(fromX / cellSize, fromY / cellSize,
+                (toX + cellSize - 1) / cellSize, (toY + cellSize - 1) / cellSize, (cx, cy, bucket) -> {
+            for (Creature creature : bucket) {
+                int x = creature.getX();
+                int y = creature.getY();
+                if (creature.isAlive() && x >= fromX && x < toX && y >= fromY && y < toY) {
+                    action.accept(creature);
+                }
+            }
+            return 0;
+        });
+    }
+
+    /**
+     * @return The last alive creature indexed at exactly (x, y), or null
+     */
+    public Creature findAt(int x, int y) {
+        List<Creature> bucket = cells.get(cellX(x), cellY(y));
+        if (bucket == null) {
+            return null;
+        }
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            Creature creature = bucket.get(i);
+            if (creature.isAlive() && creature.getX() == x && creature.getY() == y) {
+                return creature;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Collect alive creatures within a manhattan distance of a point
+     * @param x X position to search around
+     * @param y Y position to search around
+     * @param maxDistance Maximum manhattan distance (in cells)
+     * @param result List the matching creatures are added to
+     */
+    public void findNear(int x, int y, int maxDistance, List<Creature> result) {
+        int minCx = Math.max(0, (x - maxDistance) / cellSize);
+        int maxCx = Math.min(columns - 1, (x + maxDistance) / cellSize);
+        int minCy = Math.max(0, (y - maxDistance) / cellSize);
+        int maxCy = Math.min(rows - 1, (y + maxDistance) / cellSize);
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                List<Creature> bucket = cells.get(cx, cy);
+                if (bucket == null) continue;
+                for (Creature creature : bucket) {
+                    if (creature.isAlive()
+                            && Math.abs(creature.getX() - x) + Math.abs(creature.getY() - y) <= maxDistance) {
+                        result.add(creature);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit every pair of alive creatures within a manhattan distance of each other.
+     * Each pair is visited once; only the cell itself and the neighbouring cells
+     * "ahead" of it are compared, so the cost follows local density. Only the
+     * awake chunks are walked, so empty parts of the board cost nothing.
+     * @param maxDistance Maximum manhattan distance (in cells)
+     * @param visitor Callback receiving each pair
+     * @return Number of pairs whose distance was checked
+     */
+    public long forEachNearbyPair(int maxDistance, PairVisitor visitor) {
+        return forEachNearbyPair(maxDistance, 0, columns, visitor);
+    }
+
+    /**
+     * Like forEachNearbyPair(int, PairVisitor), but only the pairs whose first
+     * creature is in a cell column within [fromColumn, toColumn). The second
+     * creature may be outside, in the next columns on either side.
+     */
+    public long forEachNearbyPair(int maxDistance, int fromColumn, int toColumn, PairVisitor visitor) {
+        int reach = (maxDistance + cellSize - 1) / cellSize;
+        return cells.forEachBucket((cx, cy, bucket) -> {
+            if (cx < fromColumn || cx >= toColumn) {
+                return 0;
+            }
+            long examined = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                Creature c1 = bucket.get(i);
+                if (!c1.isAlive()) continue;
+                int x1 = c1.getX();
+                int y1 = c1.getY();
+
+                // Same cell: only pairs further along the bucket
+                examined += bucket.size() - i - 1;
+                for (int j = i + 1; j < bucket.size(); j++) {
+                    Creature c2 = bucket.get(j);
+                    if (c2.isAlive() && Math.abs(x1 - c2.getX()) + Math.abs(y1 - c2.getY()) <= maxDistance) {
+                        visitor.visit(c1, c2);
+                    }
+                }
+
+                // Neighbouring cells in the forward half so no pair is seen twice
+                for (int dy = 0; dy <= reach; dy++) {
+                    int ny = cy + dy;
+                    if (ny >= rows) break;
+                    for (int dx = -reach; dx <= reach; dx++) {
+                        if (dy == 0 && dx <= 0) continue;
+                        int nx = cx + dx;
+                        if (nx < 0 || nx >= columns) continue;
+
+                        List<Creature> neighbours = cells.get(nx, ny);
+                        if (neighbours == null) continue;
+                        examined += neighbours.size();
+                        for (Creature c2 : neighbours) {
+                            if (c2.isAlive()
+                                    && Math.abs(x1 - c2.getX()) + Math.abs(y1 - c2.getY()) <= maxDistance) {
+                                visitor.visit(c1, c2);
+                            }
+                        }
+                    }
+                }
+            }
+            return examined;
+        });
+    }
+
+    /**
+     * @return Chunks with at least one creature in them
+     */
+    public int getAwakeChunkCount() {
+        return cells.getAwakeChunkCount();
+    }
+
+    public int getChunkCount() {
+        return cells.getChunkCount();
+    }
+}
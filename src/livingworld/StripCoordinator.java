@@ -0,0 +1,463 @@
+package livingworld;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import creatures.Animal;
+import creatures.Creature;
+
+/**
+ * Runs a simulation with the board split into vertical strips, each owned by
+ * a StripWorker process on this machine. The workers move their creatures and
+ * find nearby pairs; the coordinator keeps the food, the random streams and
+ * the global counts, and makes every decision that draws on them in the same
+ * order as SimulationEngine.step(). Each tick is a barrier: every worker
+ * reports its pairs, the coordinator picks and resolves the encounter, feeds
+ * and spawns food, and sends every worker the results. A partitioned run
+ * therefore ends in exactly the same state as an undivided run from the same
+ * seed, which World.getStateDigest() can confirm.
+ *
+ * Only SINGLE encounters and StorageMode.OBJECTS are supported.
+ */
+public class StripCoordinator implements AutoCloseable {
+    private static final int ACCEPT_TIMEOUT_MILLIS = 30_000;
+    private static final int EXIT_TIMEOUT_SECONDS = 10;
+
+    private final SimulationEngine engine;
+    private final World world; // Holds the food only, once the creatures are handed out
+    private final int[] stripStarts; // First column of each strip, then the board width
+    private final List<StripProtocol.Link> workers;
+    private final List<Process> processes;
+    private final FoodChanges foodChanges;
+    private int aliveCount;
+    private int nextCreatureId;
+    private int totalCreatures;
+
+    /**
+     * Records the food spawned and eaten during a tick, for the workers
+     */
+    private static final class FoodChanges implements WorldListener {
+        private final List<Food> added = new ArrayList<>();
+        private final List<Food> removed = new ArrayList<>();
+
+        @Override
+        public void creatureAdded(Creature creature) {}
+
+        @Override
+        public void creatureMoved(Creature creature, int oldX, int oldY) {}
+
+        @Override
+        public void creatureDied(Creature creature) {}
+
+        @Override
+        public void foodAdded(Food food) { added.add(food); }
+
+        @Override
+        public void foodRemoved(Food food) { removed.add(food); }
+    }
+
+    /**
+     * Start one worker process per strip and hand each the creatures of its strip
+     * @param engine Engine whose world has been populated but not yet run;
+     * its creatures move to the workers
+     * @param strips Number of strips and worker processes
+     * @throws IllegalArgumentException If the board is too narrow for that many strips
+     */
+    public StripCoordinator(SimulationEngine engine, int strips) throws IOException {
+        this.engine = engine;
+        this.world = engine.getWorld();
+        if (world.getStorageMode() != World.StorageMode.OBJECTS
+                || engine.getEncounterMode() != SimulationEngine.EncounterMode.SINGLE) {
+            throw new IllegalArgumentException("Strips need object storage and single encounters");
+        }
+
+        // Strips are whole index cells, at least as wide as the encounter reach
+        int cell = World.INDEX_CELL_SIZE;
+        int columns = (world.getBoardWidth() + cell - 1) / cell;
+        int reach = (engine.getEncounterDistance() + cell - 1) / cell;
+        if (strips < 1 || columns / strips < reach) {
+            throw new IllegalArgumentException("A board " + world.getBoardWidth() + " cells wide can't be split into "
+                    + strips + " strips");
+        }
+        this.stripStarts = new int[strips + 1];
+        for (int i = 0; i < strips; i++) {
+            stripStarts[i] = (int) ((long) columns * i / strips) * cell;
+        }
+        stripStarts[strips] = world.getBoardWidth();
+
+        this.workers = new ArrayList<>();
+        this.processes = new ArrayList<>();
+        this.foodChanges = new FoodChanges();
+        try {
+            start();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void start() throws IOException {
+        int strips = stripStarts.length - 1;
+        int[] peerPorts = new int[strips];
+        try (ServerSocket server = new ServerSocket(0, strips, InetAddress.getLoopbackAddress())) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int i = 0; i < strips; i++) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        App.class.getName(), "--worker", "127.0.0.1:" + server.getLocalPort())
+                        .inheritIO().start());
+            }
+            server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+            for (int i = 0; i < strips; i++) {
+                StripProtocol.Link worker = new StripProtocol.Link(server.accept());
+                workers.add(worker);
+                peerPorts[i] = worker.in.readInt();
+            }
+        }
+
+        List<List<Creature>> creatures = new ArrayList<>();
+        for (int i = 0; i < strips; i++) {
+            creatures.add(new ArrayList<>());
+        }
+        nextCreatureId = world.getNextCreatureId();
+        totalCreatures = world.getTotalCreatureCount();
+        for (Creature creature : world.releaseCreatures()) {
+            if (creature.isAlive()) {
+                creatures.get(stripOf(creature.getX())).add(creature);
+                aliveCount++;
+            }
+        }
+        List<Food> food = new ArrayList<>();
+        for (Food item : world.getFood()) {
+            if (!item.isConsumed()) {
+                food.add(item);
+            }
+        }
+
+        for (int i = 0; i < strips; i++) {
+            DataOutputStream out = workers.get(i).out;
+            out.writeInt(i);
+            out.writeInt(strips);
+            out.writeInt(stripStarts[i]);
+            out.writeInt(stripStarts[i + 1]);
+            out.writeInt(i > 0 ? peerPorts[i - 1] : -1);
+            out.writeLong(world.getSeed());
+            StripProtocol.writeConfig(out, world.getConfig());
+            out.writeInt(engine.getEncounterDistance());
+            StripProtocol.writeCreatures(out, creatures.get(i));
+            writeFood(out, food);
+            out.flush();
+        }
+        for (StripProtocol.Link worker : workers) {
+            worker.in.readByte();
+        }
+        world.addListener(foodChanges);
+    }
+
+    private int stripOf(int x) {
+        int low = 0;
+        int high = stripStarts.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (stripStarts[mid] <= x) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public void run(int ticks) throws IOException {
+        for (int i = 0; i < ticks; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Simulate a single tick across all workers
+     */
+    public void step() throws IOException {
+        TickStats stats = engine.getStats();
+        long tickStart = System.nanoTime();
+        int strips = workers.size();
+        engine.beginTick();
+
+        // Movement and pair detection happen in the workers
+        for (StripProtocol.Link worker : workers) {
+            worker.out.writeByte(StripProtocol.MOVE);
+            worker.out.flush();
+        }
+        long examined = 0;
+        long moveNanos = 0;
+        long detectNanos = 0;
+        long pairCount = 0;
+        int[][] pairRows = new int[strips][];
+        int[][] pairCounts = new int[strips][];
+        List<Creature> hungry = new ArrayList<>();
+        for (int i = 0; i < strips; i++) {
+            DataInputStream in = workers.get(i).in;
+            examined += in.readLong();
+            moveNanos = Math.max(moveNanos, in.readLong());
+            detectNanos = Math.max(detectNanos, in.readLong());
+            int rows = in.readInt();
+            pairRows[i] = new int[rows];
+            pairCounts[i] = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                pairRows[i][row] = in.readInt();
+                pairCounts[i][row] = in.readInt();
+                pairCount += pairCounts[i][row];
+            }
+            int count = in.readInt();
+            for (int j = 0; j < count; j++) {
+                // Stand-ins: feeding only needs to know where they are. A creature
+                // killed in this tick's fight still eats, as in step(), but
+                // heal() on its owner's real copy does nothing.
+                Creature creature = new Animal("");
+                creature.setId(in.readInt());
+                creature.setPosition(in.readInt(), in.readInt());
+                hungry.add(creature);
+            }
+        }
+        long phaseStart = System.nanoTime();
+        if (stats != null) {
+            stats.recordDuration(TickStats.Phase.MOVEMENT, moveNanos);
+            stats.recordDuration(TickStats.Phase.DETECTION, detectNanos);
+            stats.count(TickStats.Counter.PAIRS_EXAMINED, examined);
+        }
+
+        List<List<Creature>> updates = new ArrayList<>();
+        List<List<Creature>> births = new ArrayList<>();
+        List<List<Creature>> meals = new ArrayList<>();
+        for (int i = 0; i < strips; i++) {
+            updates.add(new ArrayList<>());
+            births.add(new ArrayList<>());
+            meals.add(new ArrayList<>());
+        }
+
+        // The encounter, with copies of the two creatures fetched from the strip that found the pair
+        List<Creature> newCreatures = new ArrayList<>();
+        int pairIndex = engine.pickEncounter(Math.toIntExact(pairCount));
+        if (pairIndex >= 0) {
+            long[] located = locatePair(pairIndex, pairRows, pairCounts);
+            StripProtocol.Link worker = workers.get((int) located[0]);
+            worker.out.writeByte(StripProtocol.PAIR);
+            worker.out.writeInt((int) located[1]);
+            worker.out.flush();
+            Creature creature1 = StripProtocol.readCreature(worker.in);
+            Creature creature2 = StripProtocol.readCreature(worker.in);
+            engine.meet(creature1, creature2, newCreatures);
+            for (Creature creature : List.of(creature1, creature2)) {
+                updates.get(stripOf(creature.getX())).add(creature);
+                if (!creature.isAlive()) {
+                    aliveCount--;
+                }
+            }
+        }
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.ENCOUNTERS, phaseStart);
+        }
+
+        // Births, as many as fit, as World.addCreatures() would take them
+        int room = world.getMaxCreatures() - aliveCount;
+        int born = 0;
+        for (Creature creature : newCreatures) {
+            if (born >= room) {
+                break;
+            }
+            creature.setId(nextCreatureId++);
+            totalCreatures++;
+            if (creature.isAlive()) {
+                aliveCount++;
+            }
+            births.get(stripOf(creature.getX())).add(creature);
+            engine.getEventLog().record(engine.getTick(), EventType.BIRTH, EventLog.BIRTH_ADDED, creature, null, null, 0);
+            born++;
+        }
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.BIRTHS, phaseStart);
+            stats.count(TickStats.Counter.BIRTHS, born);
+        }
+
+        // Feeding in id order, the creature list order of an undivided world
+        hungry.sort(Comparator.comparingInt(Creature::getId));
+        List<Creature> fed = new ArrayList<>();
+        int mealCount = engine.feedCreatures(hungry, fed);
+        for (Creature creature : fed) {
+            meals.get(stripOf(creature.getX())).add(creature);
+        }
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.FEEDING, phaseStart);
+            stats.count(TickStats.Counter.MEALS, mealCount);
+        }
+
+        engine.spawnFood();
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.FOOD_SPAWN, phaseStart);
+        }
+
+        world.reclaim();
+        if (stats != null) {
+            phaseStart = stats.record(TickStats.Phase.RECLAIM, phaseStart);
+        }
+
+        // Every worker applies the results before the next tick starts
+        for (int i = 0; i < strips; i++) {
+            DataOutputStream out = workers.get(i).out;
+            out.writeByte(StripProtocol.FINISH);
+            out.writeInt(updates.get(i).size());
+            for (Creature creature : updates.get(i)) {
+                out.writeInt(creature.getId());
+                out.writeInt(creature.getHealth());
+                out.writeBoolean(creature.isAlive());
+            }
+            StripProtocol.writeCreatures(out, births.get(i));
+            out.writeInt(meals.get(i).size());
+            for (Creature creature : meals.get(i)) {
+                out.writeInt(creature.getId());
+            }
+            out.writeInt(foodChanges.removed.size());
+            for (Food item : foodChanges.removed) {
+                out.writeInt(item.getId());
+            }
+            writeFood(out, foodChanges.added);
+            out.flush();
+        }
+        foodChanges.added.clear();
+        foodChanges.removed.clear();
+        int workerAlive = 0;
+        for (StripProtocol.Link worker : workers) {
+            workerAlive += worker.in.readInt();
+        }
+        if (workerAlive != aliveCount) {
+            throw new IllegalStateException("Workers hold " + workerAlive + " creatures, expected " + aliveCount);
+        }
+
+        // The wait for the workers counts towards the tick but no phase
+        phaseStart = System.nanoTime();
+        engine.endTick();
+        if (stats != null) {
+            stats.record(TickStats.Phase.OBSERVERS, phaseStart);
+            stats.recordTick(tickStart);
+        }
+    }
+
+    /**
+     * Find which strip found a pair. Pairs are numbered in index order, row
+     * by row and within a row from the left strip to the right one.
+     * @return The strip and the pair's index within that strip's pairs
+     */
+    private static long[] locatePair(long pairIndex, int[][] pairRows, int[][] pairCounts) {
+        int strips = pairRows.length;
+        int[] next = new int[strips]; // Next row entry of each strip
+        long[] before = new long[strips]; // Pairs of each strip in earlier rows
+        long remaining = pairIndex;
+        while (true) {
+            int row = Integer.MAX_VALUE;
+            for (int i = 0; i < strips; i++) {
+                if (next[i] < pairRows[i].length) {
+                    row = Math.min(row, pairRows[i][next[i]]);
+                }
+            }
+            if (row == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Pair " + pairIndex + " is beyond the pairs found");
+            }
+            for (int i = 0; i < strips; i++) {
+                if (next[i] < pairRows[i].length && pairRows[i][next[i]] == row) {
+                    int count = pairCounts[i][next[i]];
+                    if (remaining < count) {
+                        return new long[] {i, before[i] + remaining};
+                    }
+                    remaining -= count;
+                    before[i] += count;
+                    next[i]++;
+                }
+            }
+        }
+    }
+
+    private static void writeFood(DataOutputStream out, List<Food> food) throws IOException {
+        out.writeInt(food.size());
+        for (Food item : food) {
+            StripProtocol.writeFood(out, item);
+        }
+    }
+
+    public SimulationEngine getEngine() { return engine; }
+
+    /**
+     * @return Creatures alive across all strips
+     */
+    public int getAliveCount() { return aliveCount; }
+
+    /**
+     * @return Creatures added since the world was created, dead or alive
+     */
+    public int getTotalCreatureCount() { return totalCreatures; }
+
+    /**
+     * @return The combined World.getStateDigest() of all strips
+     */
+    public long getStateDigest() throws IOException {
+        for (StripProtocol.Link worker : workers) {
+            worker.out.writeByte(StripProtocol.DIGEST);
+            worker.out.flush();
+        }
+        long digest = 0;
+        for (StripProtocol.Link worker : workers) {
+            digest += worker.in.readLong();
+            worker.in.readInt();
+        }
+        return digest;
+    }
+
+    /**
+     * @return Alive creatures in each strip, left to right
+     */
+    public int[] getStripPopulations() throws IOException {
+        for (StripProtocol.Link worker : workers) {
+            worker.out.writeByte(StripProtocol.DIGEST);
+            worker.out.flush();
+        }
+        int[] populations = new int[workers.size()];
+        for (int i = 0; i < populations.length; i++) {
+            workers.get(i).in.readLong();
+            populations[i] = workers.get(i).in.readInt();
+        }
+        return populations;
+    }
+
+    /**
+     * Stop the workers and wait for their processes to exit
+     */
+    @Override
+    public void close() throws IOException {
+        for (StripProtocol.Link worker : workers) {
+            try {
+                worker.out.writeByte(StripProtocol.STOP);
+                worker.out.flush();
+                worker.close();
+            } catch (IOException e) {
+                // The worker is already gone
+            }
+        }
+        workers.clear();
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(EXIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        processes.clear();
+    }
+}
@@ -0,0 +1,153 @@
+package livingworld;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import creatures.Animal;
+import creatures.Creature;
+import creatures.Monster;
+import creatures.NameTable;
+
+/**
+ * The binary messages a partitioned run sends over its sockets, between the
+ * coordinator and the workers and between neighbouring workers. Everything is
+ * written with DataOutputStream, so numbers are big-endian and names are
+ * modified UTF-8. A message starts with one of the command bytes when the
+ * receiver cannot otherwise know what comes next.
+ *
+ * Per tick the coordinator sends MOVE to every worker. Workers exchange the
+ * creatures crossing into each other's strips, then the creatures in the
+ * index cells along their shared edge, and answer with the nearby pair counts
+ * per index row and the creatures that may reach food. The coordinator may
+ * ask one worker for the creatures of a PAIR, and ends the tick with FINISH:
+ * fight results, births, meals and food changes for every worker to apply.
+ */
+final class StripProtocol {
+    // Coordinator to worker
+    static final byte MOVE = 1;
+    static final byte PAIR = 2;
+    static final byte FINISH = 3;
+    static final byte DIGEST = 4;
+    static final byte STOP = 5;
+
+    private StripProtocol() {
+    }
+
+    /**
+     * Streams over a connected socket, with Nagle off as messages are small and answered at once
+     */
+    static final class Link implements AutoCloseable {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Link(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Creature as id, species, base name, generation, parent id, health,
+     * hunger, strength, replication chance, friendliness, x, y; the same
+     * fields a checkpoint keeps. The base name goes as text, as every
+     * process has a NameTable of its own.
+     */
+    static void writeCreature(DataOutputStream out, Creature creature) throws IOException {
+        out.writeInt(creature.getId());
+        out.writeByte(creature.getSpeciesIndex());
+        out.writeUTF(NameTable.getName(creature.getNameId()));
+        out.writeInt(creature.getGeneration());
+        out.writeInt(creature.getParentId());
+        out.writeInt(creature.getHealth());
+        out.writeInt(creature.getHunger());
+        out.writeInt(creature.getStrength());
+        out.writeInt(creature.getReplicationChance());
+        out.writeInt(creature.getFriendliness());
+        out.writeInt(creature.getX());
+        out.writeInt(creature.getY());
+    }
+
+    static Creature readCreature(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        int species = in.readByte();
+        int name = NameTable.intern(in.readUTF());
+        Creature creature;
+        if (species == 0) {
+            creature = new Animal(name, ThreadLocalRandom.current());
+        } else if (species == 1) {
+            creature = new Monster(name, ThreadLocalRandom.current());
+        } else {
+            throw new IOException("Creature of unknown species " + species);
+        }
+        creature.setId(id);
+        creature.setGeneration(in.readInt());
+        creature.setParentId(in.readInt());
+        creature.setHealth(in.readInt());
+        creature.setHunger(in.readInt());
+        creature.setStrength(in.readInt());
+        creature.setReplicationChance(in.readInt());
+        creature.setFriendliness(in.readInt());
+        creature.setPosition(in.readInt(), in.readInt());
+        return creature;
+    }
+
+    static void writeCreatures(DataOutputStream out, List<Creature> creatures) throws IOException {
+        out.writeInt(creatures.size());
+        for (Creature creature : creatures) {
+            writeCreature(out, creature);
+        }
+    }
+
+    static List<Creature> readCreatures(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Creature> creatures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            creatures.add(readCreature(in));
+        }
+        return creatures;
+    }
+
+    /**
+     * Food as id, type, nutrition, x, y
+     */
+    static void writeFood(DataOutputStream out, Food food) throws IOException {
+        out.writeInt(food.getId());
+        out.writeUTF(food.getType());
+        out.writeInt(food.getNutritionValue());
+        out.writeInt(food.getX());
+        out.writeInt(food.getY());
+    }
+
+    static Food readFood(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        Food food = new Food(in.readUTF(), in.readInt());
+        food.setId(id);
+        food.setPosition(in.readInt(), in.readInt());
+        return food;
+    }
+
+    static void writeConfig(DataOutputStream out, WorldConfig config) throws IOException {
+        out.writeInt(config.getBoardWidth());
+        out.writeInt(config.getBoardHeight());
+        out.writeInt(config.getMaxCreatures());
+        out.writeInt(config.getMaxFood());
+    }
+
+    static WorldConfig readConfig(DataInputStream in) throws IOException {
+        return new WorldConfig(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+}
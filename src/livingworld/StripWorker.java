@@ -0,0 +1,309 @@
+package livingworld;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import creatures.Creature;
+
+/**
+ * One process of a partitioned run. It owns the creatures in a vertical strip
+ * of the board, columns [fromX, toX), and moves them, finds their nearby pairs
+ * and keeps their state, while a StripCoordinator makes every decision that
+ * draws on the shared random streams. Creatures stepping over the strip edge
+ * are handed to the neighbouring worker, and the creatures in the index cells
+ * along each edge are copied to the neighbour every tick as ghosts, so pairs
+ * across the edge are found exactly as on an undivided board.
+ */
+public class StripWorker {
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+
+    private final StripProtocol.Link coordinator;
+    private StripProtocol.Link left; // null at the left board edge
+    private StripProtocol.Link right; // null at the right board edge
+    private World world;
+    private int fromX;
+    private int toX;
+    private int encounterDistance;
+    private int ghostWidth; // Columns along each edge the neighbour needs to see
+    private final List<Creature> nearbyPairs;
+    private final Map<Integer, Food> food; // Uneaten food this strip's creatures can reach, by id
+
+    private StripWorker(StripProtocol.Link coordinator) {
+        this.coordinator = coordinator;
+        this.nearbyPairs = new ArrayList<>();
+        this.food = new HashMap<>();
+    }
+
+    /**
+     * Connect to a coordinator and serve it until it stops the run
+     */
+    public static void run(String host, int port) throws IOException {
+        try (ServerSocket peers = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+                StripProtocol.Link coordinator = new StripProtocol.Link(new Socket(host, port))) {
+            coordinator.out.writeInt(peers.getLocalPort());
+            coordinator.out.flush();
+            StripWorker worker = new StripWorker(coordinator);
+            try {
+                worker.setUp(peers);
+                worker.serve();
+            } finally {
+                if (worker.left != null) {
+                    worker.left.close();
+                }
+                if (worker.right != null) {
+                    worker.right.close();
+                }
+            }
+        }
+    }
+
+    private void setUp(ServerSocket peers) throws IOException {
+        DataInputStream in = coordinator.in;
+        int index = in.readInt();
+        int count = in.readInt();
+        fromX = in.readInt();
+        toX = in.readInt();
+        int leftPort = in.readInt();
+        long seed = in.readLong();
+        WorldConfig config = StripProtocol.readConfig(in);
+        encounterDistance = in.readInt();
+        int reach = (encounterDistance + World.INDEX_CELL_SIZE - 1) / World.INDEX_CELL_SIZE;
+        ghostWidth = reach * World.INDEX_CELL_SIZE;
+
+        // Each worker connects to its left neighbour and waits for its right one
+        if (index > 0) {
+            left = new StripProtocol.Link(new Socket(InetAddress.getLoopbackAddress(), leftPort));
+        }
+        if (index < count - 1) {
+            peers.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            right = new StripProtocol.Link(peers.accept());
+        }
+
+        world = new World(config, World.StorageMode.OBJECTS, seed);
+        for (Creature creature : StripProtocol.readCreatures(in)) {
+            world.adopt(creature);
+        }
+        placeFood(in);
+        coordinator.out.writeByte(0);
+        coordinator.out.flush();
+    }
+
+    private void serve() throws IOException {
+        DataInputStream in = coordinator.in;
+        DataOutputStream out = coordinator.out;
+        while (true) {
+            byte command = in.readByte();
+            switch (command) {
+                case StripProtocol.MOVE:
+                    move();
+                    break;
+                case StripProtocol.PAIR:
+                    int pair = in.readInt();
+                    StripProtocol.writeCreature(out, nearbyPairs.get(pair * 2));
+                    StripProtocol.writeCreature(out, nearbyPairs.get(pair * 2 + 1));
+                    break;
+                case StripProtocol.FINISH:
+                    finish();
+                    break;
+                case StripProtocol.DIGEST:
+                    out.writeLong(world.getStateDigest());
+                    out.writeInt(world.getAliveCount());
+                    break;
+                case StripProtocol.STOP:
+                    return;
+                default:
+                    throw new IOException("Unknown command " + command);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Move, swap migrants and ghosts with the neighbours, and report this
+     * strip's nearby pairs per index row and the creatures near food
+     */
+    private void move() throws IOException {
+        long start = System.nanoTime();
+        List<Creature> toLeft = new ArrayList<>();
+        List<Creature> toRight = new ArrayList<>();
+        for (Creature creature : world.planStripMoves(fromX, toX)) {
+            (creature.getX() < fromX ? toLeft : toRight).add(creature);
+        }
+        List<List<Creature>> arrived = exchange(toLeft, toRight);
+        world.applyStripMoves(mergeById(arrived.get(0), arrived.get(1)));
+        long moved = System.nanoTime();
+
+        List<Creature> leftEdge = new ArrayList<>();
+        List<Creature> rightEdge = new ArrayList<>();
+        if (left != null) {
+            world.forEachIndexedIn(fromX, Math.min(toX, fromX + ghostWidth), leftEdge::add);
+        }
+        if (right != null) {
+            world.forEachIndexedIn(Math.max(fromX, toX - ghostWidth), toX, rightEdge::add);
+        }
+        List<List<Creature>> ghosts = exchange(leftEdge, rightEdge);
+        for (List<Creature> side : ghosts) {
+            for (Creature ghost : side) {
+                world.addGhost(ghost);
+            }
+        }
+        nearbyPairs.clear();
+        long examined = world.forEachNearbyPair(encounterDistance, fromX, toX, (c1, c2) -> {
+            nearbyPairs.add(c1);
+            nearbyPairs.add(c2);
+        });
+        for (List<Creature> side : ghosts) {
+            for (Creature ghost : side) {
+                world.removeGhost(ghost);
+            }
+        }
+        long detected = System.nanoTime();
+
+        DataOutputStream out = coordinator.out;
+        out.writeLong(examined);
+        out.writeLong(moved - start);
+        out.writeLong(detected - moved);
+
+        // Pairs come in index order, so their rows only go up
+        int pairCount = nearbyPairs.size() / 2;
+        int rows = 0;
+        for (int i = 0; i < pairCount; i++) {
+            if (i == 0 || indexRow(i) != indexRow(i - 1)) {
+                rows++;
+            }
+        }
+        out.writeInt(rows);
+        for (int i = 0, run = 0; i < pairCount; i++) {
+            run++;
+            if (i == pairCount - 1 || indexRow(i + 1) != indexRow(i)) {
+                out.writeInt(indexRow(i));
+                out.writeInt(run);
+                run = 0;
+            }
+        }
+
+        // Only creatures with food in reach at the start of feeding can eat
+        List<Creature> hungry = new ArrayList<>();
+        if (!food.isEmpty()) {
+            for (Creature creature : world.getCreatures()) {
+                if (creature.isAlive() && world.findNearestFood(creature.getX(), creature.getY(),
+                        SimulationEngine.FEEDING_DISTANCE) != null) {
+                    hungry.add(creature);
+                }
+            }
+        }
+        out.writeInt(hungry.size());
+        for (Creature creature : hungry) {
+            out.writeInt(creature.getId());
+            out.writeInt(creature.getX());
+            out.writeInt(creature.getY());
+        }
+    }
+
+    /**
+     * Read a list of food items and keep the ones this strip's creatures can reach
+     */
+    private void placeFood(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Food item = StripProtocol.readFood(in);
+            if (item.getX() >= fromX - SimulationEngine.FEEDING_DISTANCE
+                    && item.getX() < toX + SimulationEngine.FEEDING_DISTANCE) {
+                world.placeFood(item);
+                food.put(item.getId(), item);
+            }
+        }
+    }
+
+    private int indexRow(int pair) {
+        return nearbyPairs.get(pair * 2).getY() / World.INDEX_CELL_SIZE;
+    }
+
+    /**
+     * Send one list to each neighbour and receive theirs: first everyone
+     * sends right and reads from the left, then the other way round, so the
+     * workers never all wait on writes nobody is reading
+     * @return What came from the left and from the right, empty at the board edges
+     */
+    private List<List<Creature>> exchange(List<Creature> toLeft, List<Creature> toRight) throws IOException {
+        List<Creature> fromLeft = List.of();
+        List<Creature> fromRight = List.of();
+        if (right != null) {
+            StripProtocol.writeCreatures(right.out, toRight);
+            right.out.flush();
+        }
+        if (left != null) {
+            fromLeft = StripProtocol.readCreatures(left.in);
+            StripProtocol.writeCreatures(left.out, toLeft);
+            left.out.flush();
+        }
+        if (right != null) {
+            fromRight = StripProtocol.readCreatures(right.in);
+        }
+        return List.of(fromLeft, fromRight);
+    }
+
+    private static List<Creature> mergeById(List<Creature> first, List<Creature> second) {
+        List<Creature> merged = new ArrayList<>(first.size() + second.size());
+        int i = 0;
+        int j = 0;
+        while (i < first.size() || j < second.size()) {
+            if (j >= second.size() || (i < first.size() && first.get(i).getId() < second.get(j).getId())) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Apply the coordinator's decisions for the tick, in the order they were
+     * made: fight results, births, meals, then food eaten and spawned
+     */
+    private void finish() throws IOException {
+        DataInputStream in = coordinator.in;
+        int updates = in.readInt();
+        for (int i = 0; i < updates; i++) {
+            Creature creature = world.findCreature(in.readInt());
+            int health = in.readInt();
+            boolean alive = in.readBoolean();
+            if (creature == null) {
+                throw new IOException("Update for a creature this strip does not have");
+            }
+            if (alive) {
+                creature.setHealth(health);
+            } else {
+                creature.die();
+            }
+        }
+        for (Creature born : StripProtocol.readCreatures(in)) {
+            world.adopt(born);
+        }
+        int meals = in.readInt();
+        for (int i = 0; i < meals; i++) {
+            Creature creature = world.findCreature(in.readInt());
+            if (creature != null) {
+                creature.heal(SimulationEngine.MEAL_HEALTH);
+            }
+        }
+        int eaten = in.readInt();
+        for (int i = 0; i < eaten; i++) {
+            Food item = food.remove(in.readInt());
+            if (item != null) {
+                item.consume();
+            }
+        }
+        placeFood(in);
+        world.reclaim();
+        world.clearChanges();
+        coordinator.out.writeInt(world.getAliveCount());
+    }
+}
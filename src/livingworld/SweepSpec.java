@@ -0,0 +1,242 @@
+package livingworld;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What an ensemble runs: every combination of the swept parameters, each
+ * repeated a number of times with a different seed. Read from a text file
+ * of "key = value" lines, where a parameter takes a list of values or a range:
+ * <pre>
+ * # 5 x 2 combinations, 20 runs each
+ * runs = 20
+ * days = 365
+ * seed = 42
+ * encounterChance = 0.1..0.5 step 0.1
+ * maxCreatures = 500, 1500
+ * </pre>
+ * Parameters that are not given keep the single default value.
+ */
+public final class SweepSpec {
+    private int runs = 1;
+    private int days = 365;
+    private long seed = 0;
+    private int creatures = 10;
+    private WorldConfig config = WorldConfig.DEFAULT;
+    private List<Double> encounterChances = List.of(0.30);
+    private List<Double> foodSpawnChances = List.of(0.30);
+    private List<Double> reproductionChances = List.of(0.5);
+    private List<Integer> maxCreatures = List.of(WorldConfig.DEFAULT.getMaxCreatures());
+
+    /**
+     * One run of the sweep: the parameters to use and the seed to start from
+     */
+    public static final class Run {
+        private final int index;
+        private final long seed;
+        private final WorldConfig config;
+        private final double encounterChance;
+        private final double foodSpawnChance;
+        private final double reproductionChance;
+
+        Run(int index, long seed, WorldConfig config, double encounterChance, double foodSpawnChance,
+                double reproductionChance) {
+            this.index = index;
+            this.seed = seed;
+            this.config = config;
+            this.encounterChance = encounterChance;
+            this.foodSpawnChance = foodSpawnChance;
+            this.reproductionChance = reproductionChance;
+        }
+
+        public int getIndex() { return index; }
+
+        public long getSeed() { return seed; }
+
+        public WorldConfig getConfig() { return config; }
+
+        public double getEncounterChance() { return encounterChance; }
+
+        public double getFoodSpawnChance() { return foodSpawnChance; }
+
+        public double getReproductionChance() { return reproductionChance; }
+    }
+
+    /**
+     * @throws IllegalArgumentException If a line cannot be understood
+     */
+    public static SweepSpec read(Path path) throws IOException {
+        return parse(Files.readAllLines(path, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException If a line cannot be understood
+     */
+    public static SweepSpec parse(List<String> lines) {
+        SweepSpec spec = new SweepSpec();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int equals = line.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected key = value");
+            }
+            String key = line.substring(0, equals).trim();
+            String value = line.substring(equals + 1).trim();
+            try {
+                spec.set(key, value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return spec;
+    }
+
+    private void set(String key, String value) {
+        switch (key) {
+            case "runs":
+                runs = positive(key, Integer.parseInt(value));
+                break;
+            case "days":
+                days = positive(key, Integer.parseInt(value));
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "creatures":
+                creatures = positive(key, Integer.parseInt(value));
+                break;
+            case "board":
+                int[] size = WorldConfig.parseBoardSize(value);
+                config = config.withBoardSize(size[0], size[1]);
+                break;
+            case "maxFood":
+                config = config.withMaxFood(Integer.parseInt(value));
+                break;
+            case "encounterChance":
+                encounterChances = chances(key, value);
+                break;
+            case "foodSpawnChance":
+                foodSpawnChances = chances(key, value);
+                break;
+            case "reproductionChance":
+                reproductionChances = chances(key, value);
+                break;
+            case "maxCreatures":
+                maxCreatures = new ArrayList<>();
+                for (double count : values(value)) {
+                    maxCreatures.add(positive(key, (int) Math.round(count)));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown key '" + key + "'");
+        }
+    }
+
+    private static int positive(String key, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(key + " must be positive");
+        }
+        return value;
+    }
+
+    private static List<Double> chances(String key, String value) {
+        List<Double> chances = values(value);
+        for (double chance : chances) {
+            if (chance < 0 || chance > 1) {
+                throw new IllegalArgumentException(key + " must be between 0 and 1");
+            }
+        }
+        return chances;
+    }
+
+    /**
+     * Read "a, b, c" or "from..to step s"
+     */
+    private static List<Double> values(String value) {
+        List<Double> values = new ArrayList<>();
+        int range = value.indexOf("..");
+        if (range < 0) {
+            for (String item : value.split(",")) {
+                values.add(Double.parseDouble(item.trim()));
+            }
+            return values;
+        }
+
+        String[] bounds = value.substring(range + 2).split("step");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Range '" + value + "' is not FROM..TO step STEP");
+        }
+        double from = Double.parseDouble(value.substring(0, range).trim());
+        double to = Double.parseDouble(bounds[0].trim());
+        double step = Double.parseDouble(bounds[1].trim());
+        if (step <= 0 || to < from) {
+            throw new IllegalArgumentException("Range '" + value + "' is empty");
+        }
+        // Counted rather than accumulated, and rounded, so 0.1 steps neither
+        // drift past the end nor come out as 0.30000000000000004
+        long steps = Math.round(Math.floor((to - from) / step + 1e-9));
+        for (long i = 0; i <= steps; i++) {
+            values.add(Math.round((from + i * step) * 1e9) / 1e9);
+        }
+        return values;
+    }
+
+    /**
+     * @return Number of runs: every combination of the parameters times the repetitions
+     */
+    public int getRunCount() {
+        long count = (long) runs * encounterChances.size() * foodSpawnChances.size()
+                * reproductionChances.size() * maxCreatures.size();
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many runs: " + count);
+        }
+        return (int) count;
+    }
+
+    /**
+     * @param index Between 0 and getRunCount() - 1. Repetitions of the same
+     * combination are next to each other.
+     */
+    public Run getRun(int index) {
+        int combination = index / runs;
+        int encounter = combination % encounterChances.size();
+        combination /= encounterChances.size();
+        int food = combination % foodSpawnChances.size();
+        combination /= foodSpawnChances.size();
+        int reproduction = combination % reproductionChances.size();
+        combination /= reproductionChances.size();
+        int capacity = combination % maxCreatures.size();
+
+        return new Run(index, SimRandom.hash(seed, 0, index),
+                config.withMaxCreatures(maxCreatures.get(capacity)),
+                encounterChances.get(encounter), foodSpawnChances.get(food), reproductionChances.get(reproduction));
+    }
+
+    public int getDays() { return days; }
+
+    /**
+     * @return Creatures each run starts with
+     */
+    public int getCreatures() { return creatures; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d run(s): %d encounter x %d food spawn x %d reproduction x %d capacity x %d repetition(s), %d day(s) each",
+                getRunCount(), encounterChances.size(), foodSpawnChances.size(), reproductionChances.size(),
+                maxCreatures.size(), runs, days);
+    }
+}
@@ -0,0 +1,53 @@
+package livingworld;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a loop at a fixed rate. Every tick is due a whole number of periods
+ * after start(), so the time spent inside a tick does not add up to drift,
+ * and a loop that fell behind runs its missed ticks back to back to catch
+ * up. Once it is more than maxCatchUp ticks behind it drops the missed ticks
+ * and carries on from the current time instead of racing through them.
+ */
+public class TickPacer {
+    private final long periodNanos;
+    private final int maxCatchUp;
+    private long nextTick;
+    private long droppedTicks;
+
+    /**
+     * @param ticksPerSecond Ticks to run per second
+     * @param maxCatchUp Most ticks to run back to back after falling behind
+     */
+    public TickPacer(double ticksPerSecond, int maxCatchUp) {
+        this.periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ticksPerSecond);
+        this.maxCatchUp = maxCatchUp;
+    }
+
+    public void start() {
+        nextTick = System.nanoTime();
+    }
+
+    /**
+     * Wait until the next tick is due; returns straight away while catching up
+     */
+    public void awaitNextTick() throws InterruptedException {
+        nextTick += periodNanos;
+        long behind = System.nanoTime() - nextTick;
+        if (behind > periodNanos * maxCatchUp) {
+            droppedTicks += behind / periodNanos;
+            nextTick += (behind / periodNanos) * periodNanos;
+        }
+        long remaining = nextTick - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * @return Ticks given up on because the loop fell too far behind
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+}
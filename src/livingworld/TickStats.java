@@ -0,0 +1,221 @@
+package livingworld;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Where the time of a tick goes: a histogram of nanosecond timings per phase
+ * and for whole ticks, and running totals of pairs examined, encounters,
+ * births, deaths and meals. An engine only records into one when it has been
+ * given one, so a run without stats pays a null check per phase. Each
+ * phase must be recorded from one thread at a time (DRAW from the render
+ * thread, the rest from the simulation thread); reading is safe from any.
+ */
+public class TickStats implements TickStatsMXBean {
+    /**
+     * Parts of a tick, in the order they run. ENCOUNTERS resolves the chosen
+     * encounters, fights and matings alike; RECLAIM is compacting the
+     * creature and food lists after deaths and meals; OBSERVERS is the end-of-tick
+     * observers, e.g. capturing a frame or journaling; DRAW is drawing a
+     * frame, which may happen on the render thread.
+     */
+    public enum Phase { MOVEMENT, DETECTION, ENCOUNTERS, BIRTHS, FEEDING, FOOD_SPAWN, RECLAIM, OBSERVERS, DRAW }
+
+    public enum Counter { PAIRS_EXAMINED, ENCOUNTERS, BIRTHS, DEATHS, MEALS }
+
+    private static final String DOMAIN = "livingworld";
+
+    private final Histogram tickTimes;
+    private final Histogram[] phaseTimes;
+    private final AtomicLongArray counters;
+    private final List<ObjectName> registered;
+
+    public TickStats() {
+        this.tickTimes = new Histogram();
+        this.phaseTimes = new Histogram[Phase.values().length];
+        for (int i = 0; i < phaseTimes.length; i++) {
+            phaseTimes[i] = new Histogram();
+        }
+        this.counters = new AtomicLongArray(Counter.values().length);
+        this.registered = new ArrayList<>();
+    }
+
+    /**
+     * Record a phase that started at startNanos and ends now
+     * @return The current System.nanoTime(), where the next phase starts
+     */
+    public long record(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseTimes[phase.ordinal()].record(now - startNanos);
+        return now;
+    }
+
+    /**
+     * Record a phase timed elsewhere, e.g. in another process
+     */
+    public void recordDuration(Phase phase, long nanos) {
+        phaseTimes[phase.ordinal()].record(nanos);
+    }
+
+    /**
+     * Record a whole tick that started at startNanos and ends now
+     */
+    public void recordTick(long startNanos) {
+        tickTimes.record(System.nanoTime() - startNanos);
+    }
+
+    public void count(Counter counter, long amount) {
+        counters.addAndGet(counter.ordinal(), amount);
+    }
+
+    public long getCount(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    public Histogram getPhaseTimes(Phase phase) {
+        return phaseTimes[phase.ordinal()];
+    }
+
+    public Histogram getTickTimes() {
+        return tickTimes;
+    }
+
+    @Override
+    public long getTicks() { return tickTimes.getCount(); }
+
+    @Override
+    public long getTickP50Nanos() { return tickTimes.getPercentile(50); }
+
+    @Override
+    public long getTickP99Nanos() { return tickTimes.getPercentile(99); }
+
+    @Override
+    public long getTickMaxNanos() { return tickTimes.getMax(); }
+
+    @Override
+    public long getPairsExamined() { return getCount(Counter.PAIRS_EXAMINED); }
+
+    @Override
+    public long getEncounters() { return getCount(Counter.ENCOUNTERS); }
+
+    @Override
+    public long getBirths() { return getCount(Counter.BIRTHS); }
+
+    @Override
+    public long getDeaths() { return getCount(Counter.DEATHS); }
+
+    @Override
+    public long getMeals() { return getCount(Counter.MEALS); }
+
+    /**
+     * @return One line with the tick and per-phase p50/p99 since the start or the last reset, and the totals
+     */
+    @Override
+    public String getSummary() {
+        StringBuilder line = new StringBuilder();
+        line.append("tick ").append(tickTimes.getCount())
+                .append(' ').append(formatNanos(tickTimes.getPercentile(50)))
+                .append('/').append(formatNanos(tickTimes.getPercentile(99)))
+                .append('/').append(formatNanos(tickTimes.getMax()));
+        for (Phase phase : Phase.values()) {
+            Histogram times = phaseTimes[phase.ordinal()];
+            if (times.getCount() > 0) {
+                line.append(" | ").append(phaseName(phase))
+                        .append(' ').append(formatNanos(times.getPercentile(50)))
+                        .append('/').append(formatNanos(times.getPercentile(99)));
+            }
+        }
+        line.append(" | pairs ").append(getPairsExamined())
+                .append(" encounters ").append(getEncounters())
+                .append(" births ").append(getBirths())
+                .append(" deaths ").append(getDeaths())
+                .append(" meals ").append(getMeals());
+        return line.toString();
+    }
+
+    @Override
+    public void reset() {
+        tickTimes.reset();
+        for (Histogram times : phaseTimes) {
+            times.reset();
+        }
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Make these stats visible over JMX, e.g. in JConsole, as
+     * livingworld:type=TickStats,name=... and one bean per phase
+     * @param name Tells apart the stats of several simulations in one JVM
+     */
+    public void register(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName ticks = new ObjectName(DOMAIN + ":type=TickStats,name=" + ObjectName.quote(name));
+        server.registerMBean(this, ticks);
+        registered.add(ticks);
+        for (Phase phase : Phase.values()) {
+            ObjectName phaseName = new ObjectName(DOMAIN + ":type=TickStats,name=" + ObjectName.quote(name)
+                    + ",phase=" + phaseName(phase));
+            server.registerMBean(new PhaseStats(phaseTimes[phase.ordinal()]), phaseName);
+            registered.add(phaseName);
+        }
+    }
+
+    /**
+     * Remove the beans added by register()
+     */
+    public void unregister() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            server.unregisterMBean(name);
+        }
+        registered.clear();
+    }
+
+    private static String phaseName(Phase phase) {
+        return phase.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1e3);
+        }
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1e6);
+    }
+
+    private static final class PhaseStats implements PhaseStatsMXBean {
+        private final Histogram times;
+
+        PhaseStats(Histogram times) {
+            this.times = times;
+        }
+
+        @Override
+        public long getCount() { return times.getCount(); }
+
+        @Override
+        public long getMeanNanos() { return times.getMean(); }
+
+        @Override
+        public long getP50Nanos() { return times.getPercentile(50); }
+
+        @Override
+        public long getP99Nanos() { return times.getPercentile(99); }
+
+        @Override
+        public long getMaxNanos() { return times.getMax(); }
+
+        @Override
+        public void reset() { times.reset(); }
+    }
+}
@@ -0,0 +1,31 @@
+package livingworld;
+
+/**
+ * Whole-tick timings and running totals of what happened, as seen over JMX
+ */
+public interface TickStatsMXBean {
+    long getTicks();
+
+    long getTickP50Nanos();
+
+    long getTickP99Nanos();
+
+    long getTickMaxNanos();
+
+    long getPairsExamined();
+
+    long getEncounters();
+
+    long getBirths();
+
+    long getDeaths();
+
+    long getMeals();
+
+    /**
+     * @return The same one-line summary the stats line prints
+     */
+    String getSummary();
+
+    void reset();
+}
@@ -0,0 +1,1019 @@
+package livingworld;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import creatures.*;
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.File;
+import java.io.IOException;
+
+
+public class World implements CreatureListener {
+    /**
+     * How creature state is kept: one object per creature, or in a
+     * CreatureStore with creatures acting as views, either as parallel
+     * primitive columns or as fixed-size records outside the heap
+     */
+    public enum StorageMode { OBJECTS, COLUMNS, OFF_HEAP }
+
+    private List<Creature> creatures;
+    private List<Food> food;
+    private long seed;
+    private SimRandom random; // creature and food placement
+    private long movementSeed;
+    private long movementRound;
+    private boolean parallelMovement;
+    private int[] moveTargets;
+    private int[] creatureNames; // NameTable ids
+    private static int[] sharedNames; // See sharedCreatureNames()
+    private SpatialGrid creatureIndex;
+    private FoodIndex foodIndex;
+    private StorageMode storageMode;
+    private CreatureStore creatureStore;
+    private int aliveCount;
+    private int[] aliveBySpecies;
+    private int nextCreatureId;
+    private int totalCreatures;
+    private int totalFood;
+
+    // Change tracking for observers: a version bumped on every change, and the
+    // board cells whose contents changed since clearChanges()
+    private long version;
+    private int[] changedCells;
+    private int changedCellCount;
+    private BitSet changedCellMarks;
+    private List<WorldListener> listeners;
+
+    // Board dimensions and max capacity
+    private final WorldConfig config;
+    private final int boardWidth;
+    private final int boardHeight;
+    private final int maxCreatures;
+    private final int maxFood;
+
+    private static final int INITIAL_STORE_CAPACITY = 4096; // Creature stores grow from here as needed
+    static final int INDEX_CELL_SIZE = 4; // Cell size of the creature proximity index
+    private static final int INDEX_CHUNK_SHIFT = 4; // Index chunks are 16 x 16 index cells, i.e. 64 x 64 board cells
+    private static final int MIN_RECLAIM = 64; // Dead entries tolerated before the lists are compacted
+    private static final int MOVEMENT_SPLIT = 2048; // Creatures per fork-join movement task
+
+    // Random streams derived from the seed, one per phase
+    private static final int STREAM_SPAWN = 1;
+    private static final int STREAM_MOVEMENT = 2;
+
+    public World() {
+        this(WorldConfig.DEFAULT, StorageMode.OBJECTS, SimRandom.randomSeed());
+    }
+
+    public World(long seed) {
+        this(WorldConfig.DEFAULT, StorageMode.OBJECTS, seed);
+    }
+
+    public World(StorageMode storageMode) {
+        this(WorldConfig.DEFAULT, storageMode, SimRandom.randomSeed());
+    }
+
+    public World(StorageMode storageMode, long seed) {
+        this(WorldConfig.DEFAULT, storageMode, seed);
+    }
+
+    public World(WorldConfig config) {
+        this(config, StorageMode.OBJECTS, SimRandom.randomSeed());
+    }
+
+    public World(WorldConfig config, long seed) {
+        this(config, StorageMode.OBJECTS, seed);
+    }
+
+    /**
+     * @param config Board size and capacities
+     * @param storageMode How creature state is stored
+     * @param seed Seed every random decision in this world is derived from
+     */
+    public World(WorldConfig config, StorageMode storageMode, long seed) {
+        this.config = config;
+        this.boardWidth = config.getBoardWidth();
+        this.boardHeight = config.getBoardHeight();
+        this.maxCreatures = config.getMaxCreatures();
+        this.maxFood = config.getMaxFood();
+        this.storageMode = storageMode;
+        this.creatureStore = createStore(storageMode, Math.min(maxCreatures, INITIAL_STORE_CAPACITY));
+        this.creatures = new ArrayList<>();
+        this.food = new ArrayList<>();
+        this.seed = seed;
+        this.random = SimRandom.derive(seed, STREAM_SPAWN);
+        this.movementSeed = SimRandom.derive(seed, STREAM_MOVEMENT).nextLong();
+        this.movementRound = 0;
+        this.parallelMovement = false;
+        this.moveTargets = new int[0];
+        this.creatureNames = sharedCreatureNames();
+        this.aliveCount = 0;
+        this.aliveBySpecies = new int[Creature.getSpeciesCount()];
+        this.nextCreatureId = 0;
+        this.totalCreatures = 0;
+        this.totalFood = 0;
+        this.creatureIndex = new SpatialGrid(boardWidth, boardHeight, INDEX_CELL_SIZE, INDEX_CHUNK_SHIFT);
+        this.foodIndex = new FoodIndex(boardWidth, boardHeight, INDEX_CELL_SIZE, INDEX_CHUNK_SHIFT);
+        this.foodIndex.setRemovalListener(this::foodRemoved);
+        this.version = 0;
+        this.changedCells = new int[64];
+        this.changedCellCount = 0;
+        this.changedCellMarks = new BitSet(config.getCellCount());
+        this.listeners = new ArrayList<>();
+    }
+
+    private static CreatureStore createStore(StorageMode storageMode, int initialCapacity) {
+        switch (storageMode) {
+            case COLUMNS:
+                return new ArrayCreatureStore(initialCapacity);
+            case OFF_HEAP:
+                return new OffHeapCreatureStore(initialCapacity);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return NameTable ids of the names read from names.txt, loaded by the
+     * first world and shared by all later ones, e.g. the many worlds of an ensemble
+     */
+    private static synchronized int[] sharedCreatureNames() {
+        if (sharedNames == null) {
+            List<String> names = loadCreatureNames();
+            sharedNames = new int[names.size()];
+            for (int i = 0; i < sharedNames.length; i++) {
+                sharedNames[i] = NameTable.intern(names.get(i));
+            }
+        }
+        return sharedNames;
+    }
+
+    private static List<String> loadCreatureNames() {
+        List<String> creatureNames = new ArrayList<>();
+        String[] possiblePaths = {
+            "src" + File.separator + "names.txt",
+            "names.txt",
+            "LivingWorld" + File.separator + "src" + File.separator + "names.txt"
+        };
+        
+        boolean fileFound = false;
+        
+        for (String path : possiblePaths) {
+            File file = new File(path);
+            if (file.exists() && file.isFile()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (!line.isEmpty()) {
+                            creatureNames.add(line);
+                        }
+                    }
+                    fileFound = true;
+                    break;
+                } catch (IOException e) {
+                }
+            }
+        }
+        
+        if (!fileFound) {
+            for (int i = 1; i < 11; i++) {
+                creatureNames.add("C" + i);
+            }
+        }
+        return List.copyOf(creatureNames);
+    }
+
+    public Creature createCreature() {
+        // Check if we're at max capacity
+        if (aliveCount >= maxCreatures) {
+            return null; // Can't spawn more creatures
+        }
+        
+        int name = creatureNames[random.nextInt(creatureNames.length)];
+
+        Creature newCreature;
+        if (random.nextBoolean()) {
+            newCreature = new Animal(name, random);
+        } else {
+            newCreature = new Monster(name, random);
+        }
+        
+        // Assign random position on grid
+        int x = random.nextInt(boardWidth);
+        int y = random.nextInt(boardHeight);
+        newCreature.setPosition(x, y);
+
+        track(newCreature);
+        return newCreature;
+    }
+    
+    /**
+     * @return Number of living creatures, kept up to date on every birth and death
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * @param speciesIndex Index of the species (see Creature.getSpeciesIndex)
+     * @return Number of living creatures of that species
+     */
+    public int getAliveCount(int speciesIndex) {
+        return aliveBySpecies[speciesIndex];
+    }
+
+    /**
+     * @param species Species name, e.g. "Animal" or "Monster"
+     * @return Number of living creatures of that species
+     */
+    public int getAliveCount(String species) {
+        for (int i = 0; i < aliveBySpecies.length; i++) {
+            if (Creature.getSpeciesName(i).equals(species)) {
+                return aliveBySpecies[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Place a random food item at a random position
+     * @return The new food, or null if the world already holds as much food as it can
+     */
+    public Food spawnFood() {
+        // Check if we're at max food capacity
+        if (foodIndex.size() >= maxFood) {
+            return null; // Can't spawn more food
+        }
+        
+        String[] foodTypes = {"Berry", "Nut", "Leaf", "Seed", "Larry"};
+        String type = foodTypes[random.nextInt(foodTypes.length)];
+        int nutrition = 1 + random.nextInt(5);
+        Food newFood = new Food(type, nutrition);
+        
+        // Assign food to random position 
+        int x = random.nextInt(boardWidth);
+        int y = random.nextInt(boardHeight);
+        newFood.setPosition(x, y);
+        
+        placeFood(newFood);
+        return newFood;
+    }
+
+    /**
+     * Put a food item on the board, e.g. when replaying a journal
+     */
+    void placeFood(Food newFood) {
+        if (newFood.getId() < 0) {
+            newFood.setId(totalFood);
+        }
+        food.add(newFood);
+        foodIndex.add(newFood);
+        totalFood++;
+        markChanged(newFood.getX(), newFood.getY());
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).foodAdded(newFood);
+        }
+    }
+
+    private void foodRemoved(Food removed) {
+        markChanged(removed.getX(), removed.getY());
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).foodRemoved(removed);
+        }
+    }
+    
+    /**
+     * @return Food in the world. Eaten food stays in the list until the next
+     * reclaim() removes it
+     */
+    public List<Food> getFood() {
+        return food;
+    }
+
+    /**
+     * Find the closest uneaten food to a position
+     * @param x X position to search around
+     * @param y Y position to search around
+     * @param maxDistance Maximum manhattan distance (in cells)
+     * @return The nearest food within maxDistance, or null if there is none
+     */
+    public Food findNearestFood(int x, int y, int maxDistance) {
+        return foodIndex.findNearest(x, y, maxDistance);
+    }
+
+    public int getActiveFoodCount() {
+        return foodIndex.size();
+    }
+
+    /**
+     * @return Number of food items spawned since the world was created
+     */
+    public int getTotalFoodCount() {
+        return totalFood;
+    }
+
+    /**
+     * Drop dead creatures and eaten food from the creature and food lists, and
+     * give dead creatures' store slots back for newborns. Only compacts once
+     * the dead entries outnumber the live ones, so the cost stays proportional
+     * to the live population and the lists never grow past about twice it.
+     * @return true if the lists were compacted
+     */
+    public boolean reclaim() {
+        int deadCreatures = creatures.size() - aliveCount;
+        int eatenFood = food.size() - foodIndex.size();
+        boolean compactCreatures = deadCreatures >= MIN_RECLAIM && deadCreatures >= aliveCount;
+        boolean compactFood = eatenFood >= MIN_RECLAIM && eatenFood >= foodIndex.size();
+
+        if (compactCreatures) {
+            creatures.removeIf(creature -> {
+                if (creature.isAlive()) {
+                    return false;
+                }
+                if (creatureStore != null) {
+                    creatureStore.release(creature.getSlot());
+                }
+                return true;
+            });
+        }
+        if (compactFood) {
+            food.removeIf(Food::isConsumed);
+        }
+        return compactCreatures || compactFood;
+    }
+
+    public void displayStatus() {
+        System.out.println("---World Status---");
+        System.out.println("Living Creatures: " + aliveCount + " / " + totalCreatures);
+        System.out.println("Food Items: " + foodIndex.size());
+    }
+
+    public void displayCreatures() {
+        System.out.println("---All Creatures---");
+        for (Creature creature : creatures) {
+            System.out.println(creature.getName() + ": ");
+            System.out.println("Species: " + creature.getSpecies());
+            System.out.println("Health: " + creature.getHealth());
+            System.out.println("Hunger: " + creature.getHunger());
+            System.out.println("Strength: " + creature.getStrength());
+            System.out.println("Can Reproduce: " + creature.getReplicationChance());
+            System.out.println("Friendliness: " + creature.getFriendliness());
+            System.out.println(creature.isAlive() ? "Alive" : "Dead");
+        }
+    }
+
+    /**
+     * @return Creatures in the world. Dead creatures stay in the list until the
+     * next reclaim() removes them
+     */
+    public List<Creature> getCreatures() {
+        return creatures;
+    }
+
+    /**
+     * @return Number of creatures added since the world was created, dead or alive
+     */
+    public int getTotalCreatureCount() {
+        return totalCreatures;
+    }
+
+    public boolean addCreature(Creature creature) {
+        // Check if we're at max capacity before adding
+        if (aliveCount >= maxCreatures) {
+            return false; 
+        }
+        track(creature);
+        return true;
+    }
+
+    /**
+     * Add creatures in order until the world is full
+     * @param newCreatures Creatures to add
+     * @return How many creatures were added; these are the first ones of the collection
+     */
+    public int addCreatures(Collection<? extends Creature> newCreatures) {
+        int room = maxCreatures - aliveCount;
+        int added = 0;
+        for (Creature creature : newCreatures) {
+            if (added >= room) {
+                break;
+            }
+            track(creature);
+            added++;
+        }
+        return added;
+    }
+
+    private void track(Creature creature) {
+        if (creatureStore != null) {
+            creature.attachTo(creatureStore);
+        }
+        creature.setId(nextCreatureId++);
+        creatures.add(creature);
+        totalCreatures++;
+        creature.setListener(this);
+        if (creature.isAlive()) {
+            creatureIndex.insert(creature);
+            markChanged(creature.getX(), creature.getY());
+            aliveCount++;
+            if (creature.getSpeciesIndex() >= 0) {
+                aliveBySpecies[creature.getSpeciesIndex()]++;
+            }
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).creatureAdded(creature);
+        }
+    }
+
+    @Override
+    public void creatureMoved(Creature creature, int oldX, int oldY) {
+        creatureIndex.move(creature, oldX, oldY);
+        markChanged(oldX, oldY);
+        markChanged(creature.getX(), creature.getY());
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).creatureMoved(creature, oldX, oldY);
+        }
+    }
+
+    @Override
+    public void creatureDied(Creature creature) {
+        creatureIndex.remove(creature);
+        markChanged(creature.getX(), creature.getY());
+        aliveCount--;
+        if (creature.getSpeciesIndex() >= 0) {
+            aliveBySpecies[creature.getSpeciesIndex()]--;
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).creatureDied(creature);
+        }
+    }
+
+    @Override
+    public void creatureUpdated(Creature creature) {
+        version++;
+    }
+
+    /**
+     * Listen to a creature again after changing it with its listener unset,
+     * e.g. on another thread: count it as updated, and as dead if it died
+     * @param creature Creature that was alive when its listener was unset
+     */
+    void reattach(Creature creature) {
+        creature.setListener(this);
+        creatureUpdated(creature);
+        if (!creature.isAlive()) {
+            creatureDied(creature);
+        }
+    }
+
+    /**
+     * @param listener Told about every creature and food change from now on
+     */
+    public void addListener(WorldListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(WorldListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Record that a board cell's contents changed
+     */
+    private void markChanged(int x, int y) {
+        version++;
+        int cell = y * boardWidth + x;
+        if (cell < 0 || cell >= config.getCellCount() || changedCellMarks.get(cell)) {
+            return;
+        }
+        changedCellMarks.set(cell);
+        if (changedCellCount == changedCells.length) {
+            changedCells = Arrays.copyOf(changedCells, changedCellCount * 2);
+        }
+        changedCells[changedCellCount++] = cell;
+    }
+
+    /**
+     * @return Counter that goes up on every change to the world: births,
+     * deaths, moves, health changes and food spawning or being eaten. Observers
+     * can compare it with the value they last saw to skip unchanged frames.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Forget the changed cells recorded so far. The engine calls this once its
+     * observers have seen a tick, so they always get the cells changed since
+     * the previous tick.
+     */
+    public void clearChanges() {
+        for (int i = 0; i < changedCellCount; i++) {
+            changedCellMarks.clear(changedCells[i]);
+        }
+        changedCellCount = 0;
+    }
+
+    /**
+     * @return Number of distinct board cells changed since the last clearChanges()
+     */
+    public int getChangedCellCount() {
+        return changedCellCount;
+    }
+
+    /**
+     * @param index Index between 0 and getChangedCellCount() - 1
+     * @return The changed cell, as y * getBoardWidth() + x
+     */
+    public int getChangedCell(int index) {
+        return changedCells[index];
+    }
+
+    /**
+     * @return The alive creature shown at a cell, or null if the cell has none
+     */
+    public Creature getCreatureAt(int x, int y) {
+        return creatureIndex.findAt(x, y);
+    }
+
+    /**
+     * @return Uneaten food at exactly this cell, or null if there is none
+     */
+    public Food getFoodAt(int x, int y) {
+        return foodIndex.findNearest(x, y, 0);
+    }
+
+    public int getBoardWidth() {
+        return boardWidth;
+    }
+
+    public int getBoardHeight() {
+        return boardHeight;
+    }
+
+    /**
+     * Find alive creatures near a position using the proximity index
+     * @param x X position to search around
+     * @param y Y position to search around
+     * @param maxDistance Maximum manhattan distance (in cells)
+     * @return Alive creatures within maxDistance of (x, y)
+     */
+    public List<Creature> getCreaturesNear(int x, int y, int maxDistance) {
+        List<Creature> nearby = new ArrayList<>();
+        creatureIndex.findNear(x, y, maxDistance, nearby);
+        return nearby;
+    }
+
+    /**
+     * Visit every pair of alive creatures within maxDistance of each other,
+     * only comparing creatures in neighbouring cells of the proximity index
+     * @return Number of pairs whose distance was checked
+     */
+    public long forEachNearbyPair(int maxDistance, SpatialGrid.PairVisitor visitor) {
+        return creatureIndex.forEachNearbyPair(maxDistance, visitor);
+    }
+
+    /**
+     * @return Chunks of the board with creatures in them, the only ones a tick has to visit
+     */
+    public int getActiveChunkCount() {
+        return creatureIndex.getAwakeChunkCount();
+    }
+
+    /**
+     * @return Chunks the board is divided into, 64 x 64 cells each
+     */
+    public int getChunkCount() {
+        return creatureIndex.getChunkCount();
+    }
+    
+    /**
+     * Move every alive creature by up to one cell in each direction. Each
+     * creature's step is drawn from its id and the movement round, so the
+     * sequential and parallel modes produce exactly the same moves.
+     */
+    public void updatePositions() {
+        planAllMoves();
+
+        // Apply on this thread, as the proximity index is not thread-safe, and in
+        // list order in both modes so the index order never depends on store slots
+        for (int i = 0; i < creatures.size(); i++) {
+            Creature creature = creatures.get(i);
+            int target = moveTargets[creatureStore != null ? creature.getSlot() : i];
+            if (target >= 0) {
+                creature.setPosition(target % boardWidth, target / boardWidth);
+            }
+        }
+    }
+
+    /**
+     * Start a new movement round and work out every creature's move into moveTargets
+     */
+    private void planAllMoves() {
+        movementRound++;
+        int count = creatureStore != null ? creatureStore.size() : creatures.size();
+        if (moveTargets.length < count) {
+            moveTargets = new int[Math.max(count, moveTargets.length * 2)];
+        }
+
+        if (parallelMovement && count > MOVEMENT_SPLIT) {
+            ForkJoinPool.commonPool().invoke(new MovementTask(0, count));
+        } else {
+            computeMoves(0, count);
+        }
+    }
+
+    /**
+     * Work out where creatures in [from, to) move to. Only reads creature
+     * state and writes its own range of moveTargets, so ranges can run in
+     * parallel. Indexes are store slots in column mode, list positions otherwise.
+     */
+    private void computeMoves(int from, int to) {
+        CreatureStore store = creatureStore;
+        if (store != null) {
+            // A straight scan over the store's columns; free slots are not alive
+            for (int i = from; i < to; i++) {
+                moveTargets[i] = store.isAlive(i)
+                        ? computeMove(store.getId(i), store.getX(i), store.getY(i)) : -1;
+            }
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            Creature creature = creatures.get(i);
+            moveTargets[i] = creature.isAlive()
+                    ? computeMove(creature.getId(), creature.getX(), creature.getY()) : -1;
+        }
+    }
+
+    /**
+     * @return Board cell (y * width + x) the creature moves to, or -1 if it stays put
+     */
+    private int computeMove(int id, int x, int y) {
+        // Random small movement (-1 to +1)
+        long bits = SimRandom.hash(movementSeed, movementRound, id);
+        int dx = (int) (((bits >>> 32) * 3) >>> 32) - 1;
+        int dy = (int) (((bits & 0xffffffffL) * 3) >>> 32) - 1;
+
+        int newX = Math.max(0, Math.min(boardWidth - 1, x + dx));
+        int newY = Math.max(0, Math.min(boardHeight - 1, y + dy));
+
+        return (newX != x || newY != y) ? newY * boardWidth + newX : -1;
+    }
+
+    @SuppressWarnings("serial") // Fork-join tasks are never serialized
+    private class MovementTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        MovementTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MOVEMENT_SPLIT) {
+                computeMoves(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MovementTask(from, mid), new MovementTask(mid, to));
+        }
+    }
+
+    /**
+     * @param parallelMovement true to spread the movement pass over the common fork-join pool
+     */
+    public void setParallelMovement(boolean parallelMovement) {
+        this.parallelMovement = parallelMovement;
+    }
+
+    public boolean isParallelMovement() {
+        return parallelMovement;
+    }
+
+    /**
+     * @return Seed this world's random streams are derived from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * @return Bytes of native memory the creature records take up with
+     * StorageMode.OFF_HEAP, or 0 in the other modes
+     */
+    public long getOffHeapBytes() {
+        if (storageMode != StorageMode.OFF_HEAP) {
+            return 0;
+        }
+        return ((OffHeapCreatureStore) creatureStore).getReservedBytes();
+    }
+    
+    public WorldConfig getConfig() {
+        return config;
+    }
+
+    public int getMaxCreatures() {
+        return maxCreatures;
+    }
+
+    public int getMaxFood() {
+        return maxFood;
+    }
+
+    /**
+     * @return Order-independent hash of every alive creature's id, position
+     * and health. Two runs from the same seed end with the same digest, however
+     * the work was divided up.
+     */
+    public long getStateDigest() {
+        long digest = 0;
+        for (Creature creature : creatures) {
+            if (creature.isAlive()) {
+                long position = (long) creature.getY() * boardWidth + creature.getX();
+                digest += SimRandom.hash(creature.getId(), position, creature.getHealth());
+            }
+        }
+        return digest;
+    }
+
+    // Support for worlds that hold one strip of a partitioned board (see
+    // StripWorker). Their creature lists stay in id order, the order the
+    // creatures would have on an undivided board, so moves are applied and
+    // the proximity index filled in the same order as there.
+
+    /**
+     * Take every creature out of this world, e.g. to hand them to the strips
+     * of a partitioned run. Food, random streams and ids carry on as before.
+     * @return The creatures in list order
+     */
+    List<Creature> releaseCreatures() {
+        List<Creature> released = creatures;
+        for (Creature creature : released) {
+            if (creature.isAlive()) {
+                creatureIndex.remove(creature);
+                markChanged(creature.getX(), creature.getY());
+            }
+            creature.setListener(null);
+        }
+        creatures = new ArrayList<>();
+        aliveCount = 0;
+        Arrays.fill(aliveBySpecies, 0);
+        return released;
+    }
+
+    /**
+     * First half of updatePositions() for a strip: work out every move, and
+     * take the creatures whose move leaves the strip out of this world
+     * @param fromX First column of the strip
+     * @param toX Column just after the strip
+     * @return Creatures leaving, in id order and already at their new positions
+     */
+    List<Creature> planStripMoves(int fromX, int toX) {
+        if (creatureStore != null) {
+            throw new IllegalStateException("Strips keep their creatures as objects");
+        }
+        planAllMoves();
+
+        List<Creature> leaving = new ArrayList<>();
+        int kept = 0;
+        for (int i = 0; i < creatures.size(); i++) {
+            Creature creature = creatures.get(i);
+            int target = moveTargets[i];
+            int targetX = target % boardWidth;
+            if (target >= 0 && (targetX < fromX || targetX >= toX)) {
+                leave(creature);
+                creature.setPosition(targetX, target / boardWidth);
+                leaving.add(creature);
+            } else {
+                creatures.set(kept, creature);
+                moveTargets[kept] = target;
+                kept++;
+            }
+        }
+        creatures.subList(kept, creatures.size()).clear();
+        return leaving;
+    }
+
+    /**
+     * Second half: apply the moves of the creatures that stayed, interleaved
+     * in id order with the creatures arriving from the neighbouring strips
+     * @param arrivals Creatures arriving, in id order and already at their new positions
+     */
+    void applyStripMoves(List<Creature> arrivals) {
+        List<Creature> merged = new ArrayList<>(creatures.size() + arrivals.size());
+        int next = 0;
+        for (int i = 0; i < creatures.size(); i++) {
+            Creature creature = creatures.get(i);
+            while (next < arrivals.size() && arrivals.get(next).getId() < creature.getId()) {
+                Creature arrival = arrivals.get(next++);
+                enter(arrival);
+                merged.add(arrival);
+            }
+            int target = moveTargets[i];
+            if (target >= 0) {
+                creature.setPosition(target % boardWidth, target / boardWidth);
+            }
+            merged.add(creature);
+        }
+        while (next < arrivals.size()) {
+            Creature arrival = arrivals.get(next++);
+            enter(arrival);
+            merged.add(arrival);
+        }
+        creatures = merged;
+    }
+
+    /**
+     * Take in a creature that already has an id, e.g. one born elsewhere that
+     * lives in this strip. Unlike addCreature() there is no capacity check.
+     */
+    void adopt(Creature creature) {
+        int position = creatures.size();
+        while (position > 0 && creatures.get(position - 1).getId() > creature.getId()) {
+            position--;
+        }
+        creatures.add(position, creature);
+        enter(creature);
+    }
+
+    /**
+     * @return The creature with this id, or null if it is not in this world
+     */
+    Creature findCreature(int id) {
+        int low = 0;
+        int high = creatures.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Creature creature = creatures.get(mid);
+            if (creature.getId() < id) {
+                low = mid + 1;
+            } else if (creature.getId() > id) {
+                high = mid - 1;
+            } else {
+                return creature;
+            }
+        }
+        return null;
+    }
+
+    private void enter(Creature creature) {
+        creature.setListener(this);
+        if (creature.isAlive()) {
+            creatureIndex.insert(creature);
+            markChanged(creature.getX(), creature.getY());
+            aliveCount++;
+            if (creature.getSpeciesIndex() >= 0) {
+                aliveBySpecies[creature.getSpeciesIndex()]++;
+            }
+        }
+    }
+
+    private void leave(Creature creature) {
+        if (creature.isAlive()) {
+            creatureIndex.remove(creature);
+            markChanged(creature.getX(), creature.getY());
+            aliveCount--;
+            if (creature.getSpeciesIndex() >= 0) {
+                aliveBySpecies[creature.getSpeciesIndex()]--;
+            }
+        }
+        creature.setListener(null);
+    }
+
+    /**
+     * Put a copy of a neighbouring strip's creature into the proximity index
+     * only, so pairs across the strip edge are found. Ghosts are not in the
+     * creature list and must be taken out again with removeGhost().
+     */
+    void addGhost(Creature ghost) {
+        creatureIndex.insert(ghost);
+    }
+
+    /**
+     * Visit the alive creatures within [fromX, toX) x [fromY, toY). A small
+     * area is looked up in the proximity index, so the cost follows the area
+     * and what is in it; an area with more index cells than there are
+     * creatures is cheaper to cover by walking the population instead.
+     */
+    public void forEachCreatureIn(int fromX, int fromY, int toX, int toY, Consumer<Creature> action) {
+        long indexCells = (long) ((toX - fromX) / INDEX_CELL_SIZE + 1) * ((toY - fromY) / INDEX_CELL_SIZE + 1);
+        if (indexCells <= aliveCount) {
+            creatureIndex.forEachInArea(fromX, fromY, toX, toY, action);
+            return;
+        }
+        for (int i = 0; i < creatures.size(); i++) {
+            Creature creature = creatures.get(i);
+            if (!creature.isAlive()) {
+                continue;
+            }
+            int x = creature.getX();
+            int y = creature.getY();
+            if (x >= fromX && x < toX && y >= fromY && y < toY) {
+                action.accept(creature);
+            }
+        }
+    }
+
+    /**
+     * Visit the uneaten food within [fromX, toX) x [fromY, toY) through the food index
+     */
+    public void forEachFoodIn(int fromX, int fromY, int toX, int toY, Consumer<Food> action) {
+        foodIndex.forEachInArea(fromX, fromY, toX, toY, action);
+    }
+
+    void removeGhost(Creature ghost) {
+        creatureIndex.remove(ghost);
+    }
+
+    /**
+     * Like forEachNearbyPair(), but only the pairs whose first creature is in
+     * an index cell within [fromX, toX); both must be multiples of
+     * INDEX_CELL_SIZE unless they are the board edges
+     */
+    long forEachNearbyPair(int maxDistance, int fromX, int toX, SpatialGrid.PairVisitor visitor) {
+        return creatureIndex.forEachNearbyPair(maxDistance, fromX / INDEX_CELL_SIZE,
+                (toX + INDEX_CELL_SIZE - 1) / INDEX_CELL_SIZE, visitor);
+    }
+
+    /**
+     * Visit the alive creatures in index cells within [fromX, toX), bucket by
+     * bucket in proximity index order
+     */
+    void forEachIndexedIn(int fromX, int toX, Consumer<Creature> action) {
+        creatureIndex.forEachIn(fromX / INDEX_CELL_SIZE, (toX + INDEX_CELL_SIZE - 1) / INDEX_CELL_SIZE, action);
+    }
+
+    // State that only checkpoints need to see or restore
+
+    long getSpawnState() {
+        return random.getState();
+    }
+
+    long getMovementRound() {
+        return movementRound;
+    }
+
+    int getNextCreatureId() {
+        return nextCreatureId;
+    }
+
+    /**
+     * Visit alive creatures in proximity index order, which decides the order
+     * nearby pairs are found in
+     */
+    void forEachIndexed(Consumer<Creature> action) {
+        creatureIndex.forEach(action);
+    }
+
+    /**
+     * Put back the state of a saved world. The world must still be empty.
+     * @param creaturesInListOrder Creatures with their saved ids, in creature list order
+     * @param creaturesInIndexOrder The same alive creatures in proximity index order
+     * @param foodInListOrder Uneaten food in food list order
+     */
+    void restore(long spawnState, long movementRound, int nextCreatureId, int totalCreatures, int totalFood,
+            List<Creature> creaturesInListOrder, List<Creature> creaturesInIndexOrder, List<Food> foodInListOrder) {
+        for (Creature creature : creaturesInListOrder) {
+            int id = creature.getId();
+            if (creatureStore != null) {
+                creature.attachTo(creatureStore);
+            }
+            creature.setId(id);
+            creatures.add(creature);
+            creature.setListener(this);
+            if (creature.isAlive()) {
+                aliveCount++;
+                if (creature.getSpeciesIndex() >= 0) {
+                    aliveBySpecies[creature.getSpeciesIndex()]++;
+                }
+            }
+        }
+        for (Creature creature : creaturesInIndexOrder) {
+            creatureIndex.insert(creature);
+        }
+        for (Food item : foodInListOrder) {
+            food.add(item);
+            foodIndex.add(item);
+        }
+        this.random.setState(spawnState);
+        this.movementRound = movementRound;
+        this.nextCreatureId = nextCreatureId;
+        this.totalCreatures = totalCreatures;
+        this.totalFood = totalFood;
+        this.version++;
+    }
+}
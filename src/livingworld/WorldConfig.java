@@ -0,0 +1,89 @@
+package livingworld;
+
+/**
+ * Size and capacity of a world, fixed when the world is created and shared
+ * by everything that needs to know them: the world itself, the engine,
+ * checkpoints and the visualizer.
+ */
+public final class WorldConfig {
+    /**
+     * The original 60 x 25 board with room for 1500 creatures and 50 food items
+     */
+    public static final WorldConfig DEFAULT = new WorldConfig(60, 25, 1500, 50);
+
+    // Board cells are numbered y * width + x in an int
+    private static final long MAX_CELLS = Integer.MAX_VALUE;
+
+    private final int boardWidth;
+    private final int boardHeight;
+    private final int maxCreatures;
+    private final int maxFood;
+
+    /**
+     * @param boardWidth Board width in cells
+     * @param boardHeight Board height in cells
+     * @param maxCreatures Most creatures alive at once
+     * @param maxFood Most uneaten food items at once
+     */
+    public WorldConfig(int boardWidth, int boardHeight, int maxCreatures, int maxFood) {
+        if (boardWidth <= 0 || boardHeight <= 0 || (long) boardWidth * boardHeight > MAX_CELLS) {
+            throw new IllegalArgumentException("Invalid board size " + boardWidth + "x" + boardHeight);
+        }
+        if (maxCreatures < 0 || maxFood < 0) {
+            throw new IllegalArgumentException("Capacities must not be negative");
+        }
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        this.maxCreatures = maxCreatures;
+        this.maxFood = maxFood;
+    }
+
+    /**
+     * Read a board size written as "WIDTHxHEIGHT", e.g. "10000x10000"
+     * @throws IllegalArgumentException If the size is malformed or too large
+     */
+    public static int[] parseBoardSize(String size) {
+        int separator = size.toLowerCase().indexOf('x');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Board size '" + size + "' is not WIDTHxHEIGHT");
+        }
+        try {
+            return new int[] {
+                Integer.parseInt(size.substring(0, separator).trim()),
+                Integer.parseInt(size.substring(separator + 1).trim())
+            };
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Board size '" + size + "' is not WIDTHxHEIGHT", e);
+        }
+    }
+
+    public WorldConfig withBoardSize(int width, int height) {
+        return new WorldConfig(width, height, maxCreatures, maxFood);
+    }
+
+    public WorldConfig withMaxCreatures(int creatures) {
+        return new WorldConfig(boardWidth, boardHeight, creatures, maxFood);
+    }
+
+    public WorldConfig withMaxFood(int food) {
+        return new WorldConfig(boardWidth, boardHeight, maxCreatures, food);
+    }
+
+    public int getBoardWidth() { return boardWidth; }
+
+    public int getBoardHeight() { return boardHeight; }
+
+    /**
+     * @return Number of cells on the board, which fits in an int
+     */
+    public int getCellCount() { return boardWidth * boardHeight; }
+
+    public int getMaxCreatures() { return maxCreatures; }
+
+    public int getMaxFood() { return maxFood; }
+
+    @Override
+    public String toString() {
+        return boardWidth + "x" + boardHeight + ", " + maxCreatures + " creatures, " + maxFood + " food";
+    }
+}
@@ -0,0 +1,15 @@
+package livingworld;
+
+import creatures.Creature;
+
+/**
+ * Receives every change to what is on the board: creatures arriving, moving
+ * and dying, and food appearing and being eaten
+ */
+public interface WorldListener {
+    public void creatureAdded(Creature creature);
+    public void creatureMoved(Creature creature, int oldX, int oldY);
+    public void creatureDied(Creature creature);
+    public void foodAdded(Food food);
+    public void foodRemoved(Food food);
+}
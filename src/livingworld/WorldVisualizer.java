@@ -0,0 +1,716 @@
+package livingworld;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import creatures.Creature;
+
+public class WorldVisualizer {
+    /**
+     * FULL clears and redraws the screen every frame; DIFF draws one full
+     * frame and then only rewrites the cells and lines that changed
+     */
+    public enum RenderMode { FULL, DIFF }
+
+    /**
+     * Number of event lines shown under the grid
+     */
+    public static final int EVENT_LINES = 3;
+
+    // Most screen cells the board view takes up
+    private static final int VIEW_WIDTH = 60;
+    private static final int VIEW_HEIGHT = 25;
+
+    private static final String RESET = "\u001B[0m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String YELLOW = "\u001B[33m";
+    private static final String CYAN = "\u001B[36m";
+    private static final String BRIGHT_GREEN = "\u001B[92m";
+    private static final String BRIGHT_RED = "\u001B[91m";
+    private static final String BRIGHT_YELLOW = "\u001B[93m";
+
+    private static final String TOP_LEFT = "┌";
+    private static final String TOP_RIGHT = "┐";
+    private static final String BOTTOM_LEFT = "└";
+    
+    private static final String BOTTOM_RIGHT = "┘";
+    private static final String HORIZONTAL = "─";
+    private static final String VERTICAL = "│";
+
+    // Cursor home + clear screen, instead of spawning a clear process
+    private static final String CLEAR_SCREEN = "\u001B[H\u001B[2J";
+    private static final String CLEAR_LINE = "\u001B[2K";
+    private static final String CLEAR_TO_END = "\u001B[J";
+
+    // Screen positions (1-based) of the parts of a full frame
+    private static final int TICK_ROW = 6;
+    private static final int POPULATION_ROW = 7;
+    private static final int GRID_ROW = 10;
+    private static final int GRID_COLUMN = 4;
+
+    // Capturing runs on the simulation thread and only touches these fields;
+    // drawing may run on a render thread and only touches the ones further down
+    private char[][] grid;
+
+    // Part of the board to show: the board cell at the top left, and how many
+    // board cells in each direction one screen cell stands for (0 to fit the board)
+    private int viewX;
+    private int viewY;
+    private int scale = 1;
+
+    // World, version, tick and view the grid was last brought up to date for
+    private World gridWorld;
+    private long gridVersion = -1;
+    private int gridTick = -1;
+    private int gridViewX = -1;
+    private int gridViewY = -1;
+    private int gridScale;
+    private int gridWidth;
+    private int gridHeight;
+
+    // Per screen cell counts when the view is down-sampled
+    private int[] animalCounts;
+    private int[] monsterCounts;
+    private int[] foodCounts;
+    private boolean[] dirtyCells; // Screen cells to count again, only set inside sampleGrid()
+    private final Consumer<Creature> creatureCounter = this::countCreature;
+    private final Consumer<Food> foodCounter = this::countFood;
+
+    private WritableByteChannel out;
+    private StringBuilder frame;
+    private CharsetEncoder encoder;
+    private ByteBuffer bytes;
+
+    // What is currently on screen, for DIFF rendering
+    private RenderMode renderMode = RenderMode.FULL;
+    private boolean hasShownFrame;
+    private char[][] shownGrid;
+    private int shownWidth;
+    private int shownHeight;
+    private int shownViewX;
+    private int shownViewY;
+    private int shownScale;
+    private int shownDay;
+    private int shownTickInDay;
+    private int shownTotalTick;
+    private int shownAliveCount;
+    private int shownAnimalCount;
+    private int shownTotalCreatures;
+    private int shownFoodCount;
+    
+    public WorldVisualizer() {
+        this(new FileOutputStream(FileDescriptor.out).getChannel());
+    }
+
+    public WorldVisualizer(OutputStream out) {
+        this(Channels.newChannel(out));
+    }
+
+    /**
+     * @param out Channel every frame is written to, one write per frame
+     */
+    public WorldVisualizer(WritableByteChannel out) {
+        this.out = out;
+        this.frame = new StringBuilder(16 * 1024);
+        this.encoder = StandardCharsets.UTF_8.newEncoder();
+        this.bytes = ByteBuffer.allocate(32 * 1024);
+        this.grid = new char[VIEW_HEIGHT][VIEW_WIDTH];
+        this.shownGrid = new char[VIEW_HEIGHT][VIEW_WIDTH];
+        this.hasShownFrame = false;
+        clearGrid();
+    }
+
+    private void clearGrid() {
+        for (int y = 0; y < VIEW_HEIGHT; y++) {
+            Arrays.fill(grid[y], ' ');
+        }
+    }
+
+    /**
+     * Show the part of the board starting at this cell from the next capture
+     * on. The view is kept inside the board.
+     */
+    public void setViewport(int x, int y) {
+        this.viewX = Math.max(0, x);
+        this.viewY = Math.max(0, y);
+    }
+
+    /**
+     * Move the view by a number of screen cells
+     */
+    public void scroll(int dx, int dy) {
+        int step = Math.max(1, gridScale);
+        setViewport(viewX + dx * step, viewY + dy * step);
+    }
+
+    /**
+     * @param scale Board cells per screen cell in each direction: 1 shows
+     * every cell, larger values down-sample, and 0 fits the whole board in
+     * the view. A down-sampled cell shows the species most of its creatures
+     * belong to, or food if it has no creatures.
+     */
+    public void setScale(int scale) {
+        this.scale = Math.max(0, scale);
+    }
+
+    /**
+     * Show half as many board cells per screen cell, keeping the centre of the view in place
+     */
+    public void zoomIn() {
+        zoomTo(Math.max(1, gridScale / 2));
+    }
+
+    /**
+     * Show twice as many board cells per screen cell, keeping the centre of the view in place
+     */
+    public void zoomOut() {
+        zoomTo(Math.max(1, gridScale) * 2);
+    }
+
+    private void zoomTo(int newScale) {
+        int centreX = viewX + gridWidth * Math.max(1, gridScale) / 2;
+        int centreY = viewY + gridHeight * Math.max(1, gridScale) / 2;
+        setScale(newScale);
+        setViewport(centreX - VIEW_WIDTH * newScale / 2, centreY - VIEW_HEIGHT * newScale / 2);
+    }
+
+    public int getViewX() { return viewX; }
+
+    public int getViewY() { return viewY; }
+
+    public int getScale() { return scale; }
+    
+    /**
+     * Draw the world if anything changed since the last call
+     * @return true if a frame was drawn
+     */
+    public boolean visualize(World world, int day, int tickInDay, int totalTick, List<String> events) {
+        Frame snapshot = capture(world, day, tickInDay, totalTick, events);
+        if (snapshot == null) {
+            return false;
+        }
+        draw(snapshot);
+        return true;
+    }
+
+    /**
+     * Take a snapshot of the world for drawing later, possibly on another
+     * thread. The world's version counter tells whether anything changed at
+     * all, and when the previous capture was for the previous tick only the
+     * cells the world reports as changed are looked at again. Must be called
+     * on the thread that runs the simulation.
+     * @return The frame to draw, or null if nothing changed since the last capture
+     */
+    public Frame capture(World world, int day, int tickInDay, int totalTick, List<String> events) {
+        int boardWidth = world.getBoardWidth();
+        int boardHeight = world.getBoardHeight();
+        int cellScale = scale > 0 ? scale
+                : Math.max(ceilDiv(boardWidth, VIEW_WIDTH), ceilDiv(boardHeight, VIEW_HEIGHT));
+        int width = Math.min(VIEW_WIDTH, ceilDiv(boardWidth, cellScale));
+        int height = Math.min(VIEW_HEIGHT, ceilDiv(boardHeight, cellScale));
+        viewX = Math.min(viewX, Math.max(0, boardWidth - width * cellScale));
+        viewY = Math.min(viewY, Math.max(0, boardHeight - height * cellScale));
+
+        long version = world.getVersion();
+        boolean hasEvents = events != null && !events.isEmpty();
+        boolean sameView = viewX == gridViewX && viewY == gridViewY && cellScale == gridScale
+                && width == gridWidth && height == gridHeight;
+        boolean incremental = sameView && world == gridWorld
+                && (totalTick == gridTick || totalTick == gridTick + 1);
+
+        if (incremental && version == gridVersion && !hasEvents) {
+            gridTick = totalTick;
+            return null;
+        }
+
+        gridViewX = viewX;
+        gridViewY = viewY;
+        gridScale = cellScale;
+        gridWidth = width;
+        gridHeight = height;
+        if (cellScale > 1) {
+            sampleGrid(world, incremental);
+        } else if (incremental) {
+            for (int i = 0; i < world.getChangedCellCount(); i++) {
+                int cell = world.getChangedCell(i);
+                refreshCell(world, cell % boardWidth, cell / boardWidth);
+            }
+        } else {
+            rebuildGrid(world);
+        }
+        gridWorld = world;
+        gridVersion = version;
+        gridTick = totalTick;
+
+        char[][] cells = new char[height][];
+        for (int y = 0; y < height; y++) {
+            cells[y] = Arrays.copyOf(grid[y], width);
+        }
+        int aliveCount = world.getAliveCount();
+        return new Frame(day, tickInDay, totalTick, cells, aliveCount, world.getAliveCount("Animal"),
+                world.getTotalCreatureCount(), world.getActiveFoodCount(),
+                events == null ? List.of() : List.copyOf(events),
+                viewX, viewY, cellScale, boardWidth, boardHeight);
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    /**
+     * Draw a captured frame. Frames may be skipped; each one is drawn in full
+     * or against what is currently on screen, never against the frame before it.
+     */
+    public void draw(Frame snapshot) {
+        if (renderMode == RenderMode.DIFF && hasShownFrame
+                && snapshot.hasSameView(shownViewX, shownViewY, shownScale, shownWidth, shownHeight)) {
+            renderChanges(snapshot);
+        } else {
+            render(snapshot);
+        }
+    }
+
+    /**
+     * Look up every cell in the view, one board cell per screen cell. Costs
+     * the same however many creatures the board holds.
+     */
+    private void rebuildGrid(World world) {
+        clearGrid();
+        for (int y = 0; y < gridHeight; y++) {
+            for (int x = 0; x < gridWidth; x++) {
+                refreshCell(world, gridViewX + x, gridViewY + y);
+            }
+        }
+    }
+
+    /**
+     * Count the creatures and food under each screen cell of a down-sampled
+     * view and show the majority species, or food if there are no creatures.
+     * The counts come from the world's indexes for the viewport only, and
+     * when the last capture was for the previous tick only the screen cells
+     * holding a changed board cell are counted again.
+     */
+    private void sampleGrid(World world, boolean incremental) {
+        int cells = gridWidth * gridHeight;
+        if (animalCounts == null) {
+            animalCounts = new int[VIEW_WIDTH * VIEW_HEIGHT];
+            monsterCounts = new int[VIEW_WIDTH * VIEW_HEIGHT];
+            foodCounts = new int[VIEW_WIDTH * VIEW_HEIGHT];
+            dirtyCells = new boolean[VIEW_WIDTH * VIEW_HEIGHT];
+        }
+
+        int boardWidth = world.getBoardWidth();
+        int dirtyCount = 0;
+        if (incremental) {
+            for (int i = 0; i < world.getChangedCellCount() && dirtyCount <= cells / 4; i++) {
+                int changed = world.getChangedCell(i);
+                int cell = sampledCell(changed % boardWidth, changed / boardWidth);
+                if (cell >= 0 && !dirtyCells[cell]) {
+                    dirtyCells[cell] = true;
+                    dirtyCount++;
+                }
+            }
+            if (dirtyCount > cells / 4) {
+                // Counting the whole view in one pass is cheaper than one query per screen cell
+                Arrays.fill(dirtyCells, 0, cells, false);
+                incremental = false;
+            }
+        }
+
+        if (!incremental) {
+            Arrays.fill(animalCounts, 0, cells, 0);
+            Arrays.fill(monsterCounts, 0, cells, 0);
+            Arrays.fill(foodCounts, 0, cells, 0);
+            int toX = gridViewX + gridWidth * gridScale;
+            int toY = gridViewY + gridHeight * gridScale;
+            world.forEachCreatureIn(gridViewX, gridViewY, toX, toY, creatureCounter);
+            world.forEachFoodIn(gridViewX, gridViewY, toX, toY, foodCounter);
+            clearGrid();
+            for (int cell = 0; cell < cells; cell++) {
+                showSample(cell);
+            }
+            return;
+        }
+
+        for (int cell = 0; dirtyCount > 0 && cell < cells; cell++) {
+            if (!dirtyCells[cell]) {
+                continue;
+            }
+            dirtyCells[cell] = false;
+            dirtyCount--;
+            animalCounts[cell] = 0;
+            monsterCounts[cell] = 0;
+            foodCounts[cell] = 0;
+            int fromX = gridViewX + (cell % gridWidth) * gridScale;
+            int fromY = gridViewY + (cell / gridWidth) * gridScale;
+            world.forEachCreatureIn(fromX, fromY, fromX + gridScale, fromY + gridScale, creatureCounter);
+            world.forEachFoodIn(fromX, fromY, fromX + gridScale, fromY + gridScale, foodCounter);
+            showSample(cell);
+        }
+    }
+
+    private void countCreature(Creature creature) {
+        int cell = sampledCell(creature.getX(), creature.getY());
+        if (cell >= 0) {
+            if (creatureSymbol(creature) == 'A') {
+                animalCounts[cell]++;
+            } else {
+                monsterCounts[cell]++;
+            }
+        }
+    }
+
+    private void countFood(Food food) {
+        int cell = sampledCell(food.getX(), food.getY());
+        if (cell >= 0) {
+            foodCounts[cell]++;
+        }
+    }
+
+    private void showSample(int cell) {
+        char symbol = ' ';
+        if (monsterCounts[cell] > animalCounts[cell]) {
+            symbol = 'M';
+        } else if (animalCounts[cell] > 0) {
+            symbol = 'A';
+        } else if (foodCounts[cell] > 0) {
+            symbol = '•';
+        }
+        grid[cell / gridWidth][cell % gridWidth] = symbol;
+    }
+
+    /**
+     * @return Screen cell a board position falls in, as y * gridWidth + x, or -1 if it is outside the view
+     */
+    private int sampledCell(int x, int y) {
+        int column = Math.floorDiv(x - gridViewX, gridScale);
+        int row = Math.floorDiv(y - gridViewY, gridScale);
+        if (column < 0 || column >= gridWidth || row < 0 || row >= gridHeight) {
+            return -1;
+        }
+        return row * gridWidth + column;
+    }
+
+    /**
+     * Look up what a single board cell shows now: a creature, otherwise food,
+     * otherwise nothing. Cells outside the view are ignored.
+     */
+    private void refreshCell(World world, int x, int y) {
+        int column = x - gridViewX;
+        int row = y - gridViewY;
+        if (column < 0 || column >= gridWidth || row < 0 || row >= gridHeight) {
+            return;
+        }
+        Creature creature = world.getCreatureAt(x, y);
+        if (creature != null) {
+            grid[row][column] = creatureSymbol(creature);
+        } else if (world.getFoodAt(x, y) != null) {
+            grid[row][column] = '•';
+        } else {
+            grid[row][column] = ' ';
+        }
+    }
+
+    private char creatureSymbol(Creature creature) {
+        // Use getType() instead of getSpecies() for consistency
+        String creatureType = creature.getType();
+        if (creatureType != null && creatureType.equals("Animal")) {
+            return 'A';
+        } else if (creatureType != null && creatureType.equals("Monster")) {
+            return 'M';
+        } else if (creature.getSpecies() != null && creature.getSpecies().equals("Animal")) {
+            return 'A';
+        }
+        return 'M';
+    }
+    
+    /**
+     * Build the whole frame in the reusable buffer and write it out in one go
+     */
+    private void render(Frame snapshot) {
+        StringBuilder out = frame;
+        out.setLength(0);
+        out.append(CLEAR_SCREEN);
+
+        out.append('\n');
+        out.append(CYAN).append("╔════════════════════════════════════════════════════════════════╗").append(RESET).append('\n');
+        out.append(CYAN).append("║").append(RESET).append("              ").append(BRIGHT_YELLOW).append("        LIVING WORLD SIMULATION").append(RESET).append("                ").append(CYAN).append("   ║").append(RESET).append('\n');
+        out.append(CYAN).append("╚════════════════════════════════════════════════════════════════╝").append(RESET).append('\n');
+        out.append('\n');
+        int aliveCount = snapshot.getAliveCount();
+        int animalCount = snapshot.getAnimalCount();
+        
+        appendTickLine(out, snapshot.getDay(), snapshot.getTickInDay(), snapshot.getTotalTick());
+        out.append('\n');
+        appendPopulationLine(out, aliveCount, snapshot.getTotalCreatures(), snapshot.getFoodCount());
+        out.append('\n');
+        out.append('\n');
+
+        int width = snapshot.getWidth();
+        int height = snapshot.getHeight();
+        out.append("  ").append(CYAN).append(TOP_LEFT);
+        for (int x = 0; x < width; x++) {
+            out.append(HORIZONTAL);
+        }
+        out.append(TOP_RIGHT).append(RESET).append('\n');
+
+        for (int y = 0; y < height; y++) {
+            out.append("  ").append(CYAN).append(VERTICAL).append(RESET);
+            
+            for (int x = 0; x < width; x++) {
+                char cell = snapshot.getCell(x, y);
+                appendCell(out, x, y, cell);
+                shownGrid[y][x] = cell;
+            }
+            
+            out.append(CYAN).append(VERTICAL).append(RESET).append('\n');
+        }
+
+        out.append("  ").append(CYAN).append(BOTTOM_LEFT);
+        for (int x = 0; x < width; x++) {
+            out.append(HORIZONTAL);
+        }
+        out.append(BOTTOM_RIGHT).append(RESET).append('\n');
+        
+        out.append('\n');
+
+        out.append("  ").append(BRIGHT_GREEN).append('A').append(RESET).append(" = Animal  ")
+           .append(BRIGHT_RED).append('M').append(RESET).append(" = Monster  ")
+           .append(BRIGHT_YELLOW).append('*').append(RESET).append(" = Food");
+        if (!snapshot.showsWholeBoard()) {
+            appendViewport(out, snapshot);
+        }
+        out.append('\n');
+        out.append('\n');
+        
+        appendRatioLine(out, animalCount, aliveCount - animalCount);
+        out.append('\n');
+        out.append('\n');
+        appendEvents(out, snapshot.getEvents());
+
+        rememberShown(snapshot);
+        writeFrame();
+    }
+
+    /**
+     * Repaint only what changed since the last frame: grid cells that differ,
+     * status lines whose numbers moved and the event list. Everything is
+     * addressed with cursor moves, so untouched parts of the screen are left alone.
+     */
+    private void renderChanges(Frame snapshot) {
+        StringBuilder out = frame;
+        out.setLength(0);
+
+        int aliveCount = snapshot.getAliveCount();
+        int animalCount = snapshot.getAnimalCount();
+
+        if (snapshot.getDay() != shownDay || snapshot.getTickInDay() != shownTickInDay
+                || snapshot.getTotalTick() != shownTotalTick) {
+            moveTo(out, TICK_ROW, 1).append(CLEAR_LINE);
+            appendTickLine(out, snapshot.getDay(), snapshot.getTickInDay(), snapshot.getTotalTick());
+        }
+        if (aliveCount != shownAliveCount || snapshot.getTotalCreatures() != shownTotalCreatures
+                || snapshot.getFoodCount() != shownFoodCount) {
+            moveTo(out, POPULATION_ROW, 1).append(CLEAR_LINE);
+            appendPopulationLine(out, aliveCount, snapshot.getTotalCreatures(), snapshot.getFoodCount());
+        }
+
+        for (int y = 0; y < snapshot.getHeight(); y++) {
+            int cursorX = -1; // Column the cursor is at after the last write on this row
+            for (int x = 0; x < snapshot.getWidth(); x++) {
+                char cell = snapshot.getCell(x, y);
+                if (cell == shownGrid[y][x]) continue;
+                if (cursorX != x) {
+                    moveTo(out, GRID_ROW + y, GRID_COLUMN + x);
+                }
+                appendCell(out, x, y, cell);
+                shownGrid[y][x] = cell;
+                cursorX = x + 1;
+            }
+        }
+
+        if (aliveCount != shownAliveCount || animalCount != shownAnimalCount) {
+            moveTo(out, ratioRow(snapshot.getHeight()), 1).append(CLEAR_LINE);
+            appendRatioLine(out, animalCount, aliveCount - animalCount);
+        }
+
+        // Events are redrawn together with the rest of the screen below them
+        moveTo(out, ratioRow(snapshot.getHeight()) + 2, 1).append(CLEAR_TO_END);
+        appendEvents(out, snapshot.getEvents());
+
+        rememberShown(snapshot);
+        writeFrame();
+    }
+
+    /**
+     * @return Screen row of the ratio bar under a grid of this height; the events start two rows further down
+     */
+    private static int ratioRow(int gridHeight) {
+        return GRID_ROW + gridHeight + 4;
+    }
+
+    private StringBuilder moveTo(StringBuilder out, int row, int column) {
+        return out.append("\u001B[").append(row).append(';').append(column).append('H');
+    }
+
+    private void rememberShown(Frame snapshot) {
+        shownDay = snapshot.getDay();
+        shownTickInDay = snapshot.getTickInDay();
+        shownTotalTick = snapshot.getTotalTick();
+        shownAliveCount = snapshot.getAliveCount();
+        shownAnimalCount = snapshot.getAnimalCount();
+        shownTotalCreatures = snapshot.getTotalCreatures();
+        shownFoodCount = snapshot.getFoodCount();
+        shownWidth = snapshot.getWidth();
+        shownHeight = snapshot.getHeight();
+        shownViewX = snapshot.getViewX();
+        shownViewY = snapshot.getViewY();
+        shownScale = snapshot.getScale();
+        hasShownFrame = true;
+    }
+
+    private void appendTickLine(StringBuilder out, int day, int tickInDay, int totalTick) {
+        out.append("  ").append(GREEN).append("Day: ").append(RESET).append(BRIGHT_YELLOW).append(day).append(RESET)
+           .append("  │  ").append(GREEN).append("Tick: ").append(RESET).append(BRIGHT_YELLOW).append(tickInDay).append(RESET).append(" / 24")
+           .append("  │  ").append(GREEN).append("Total Ticks: ").append(RESET).append(BRIGHT_YELLOW).append(totalTick).append(RESET);
+    }
+
+    private void appendPopulationLine(StringBuilder out, int aliveCount, int totalCreatures, int foodCount) {
+        out.append("  ").append(GREEN).append("Alive: ").append(RESET).append(BRIGHT_GREEN).append(aliveCount).append(RESET)
+           .append(" / ").append(totalCreatures)
+           .append("  │  ").append(GREEN).append("Food: ").append(RESET).append(BRIGHT_YELLOW).append(foodCount).append(RESET);
+    }
+
+    /**
+     * Say which part of the board is shown, e.g. "x 100-159, y 40-64 of 1000x1000 (1:4)"
+     */
+    private void appendViewport(StringBuilder out, Frame snapshot) {
+        int scale = snapshot.getScale();
+        int lastX = Math.min(snapshot.getBoardWidth(), snapshot.getViewX() + snapshot.getWidth() * scale) - 1;
+        int lastY = Math.min(snapshot.getBoardHeight(), snapshot.getViewY() + snapshot.getHeight() * scale) - 1;
+        out.append("  │  ").append(GREEN).append("View: ").append(RESET)
+           .append("x ").append(snapshot.getViewX()).append('-').append(lastX)
+           .append(", y ").append(snapshot.getViewY()).append('-').append(lastY)
+           .append(" of ").append(snapshot.getBoardWidth()).append('x').append(snapshot.getBoardHeight());
+        if (scale > 1) {
+            out.append(" (1:").append(scale).append(')');
+        }
+    }
+
+    private void appendCell(StringBuilder out, int x, int y, char cell) {
+        if (cell == 'A') {
+            out.append(BRIGHT_GREEN).append('A').append(RESET);
+        } else if (cell == 'M') {
+            out.append(BRIGHT_RED).append('M').append(RESET);
+        } else if (cell == '•') {
+            out.append(BRIGHT_YELLOW).append('*').append(RESET);
+        } else {
+            if ((x + y) % 4 == 0) {
+                out.append('·');
+            } else {
+                out.append(' ');
+            }
+        }
+    }
+
+    /**
+     * Display the ratio bar (Animals vs Monsters) with counts on either side
+     */
+    private void appendRatioLine(StringBuilder out, int animalCount, int monsterCount) {
+        int barWidth = 40; // Width of the ratio bar
+        out.append("  ").append(BRIGHT_GREEN).append(animalCount).append(RESET).append(' ');
+        appendRatioBar(out, animalCount, monsterCount, barWidth);
+        out.append(' ').append(BRIGHT_RED).append(monsterCount).append(RESET);
+    }
+
+    private void appendEvents(StringBuilder out, List<String> events) {
+        if (events != null && !events.isEmpty()) {
+            out.append(CYAN).append("  Recent Events:").append(RESET).append('\n');
+            int start = Math.max(0, events.size() - EVENT_LINES);
+            for (int i = start; i < events.size(); i++) {
+                out.append("  ").append(YELLOW).append("•").append(RESET).append(' ').append(events.get(i)).append('\n');
+            }
+            out.append('\n');
+        }
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * @param renderMode FULL to redraw the whole screen every frame, DIFF to
+     * only repaint what changed since the previous frame
+     */
+    public void setRenderMode(RenderMode renderMode) {
+        this.renderMode = renderMode;
+    }
+
+    /**
+     * Encode the frame into the reusable byte buffer and hand it to the
+     * channel with a single write
+     */
+    private void writeFrame() {
+        encoder.reset();
+        CharBuffer chars = CharBuffer.wrap(frame);
+        bytes.clear();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isOverflow()) {
+                ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+                bytes.flip();
+                larger.put(bytes);
+                bytes = larger;
+            } else {
+                break;
+            }
+        }
+        encoder.flush(bytes);
+        bytes.flip();
+
+        try {
+            System.out.flush(); // Keep anything printed before the frame in order
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not draw frame: " + e.getMessage());
+        }
+    }
+    
+    private void appendRatioBar(StringBuilder out, int animalCount, int monsterCount, int width) {
+        int total = animalCount + monsterCount;
+        if (total == 0) {
+            // Empty bar if no creatures
+            for (int i = 0; i < width; i++) {
+                out.append("░");
+            }
+            return;
+        }
+        
+        // Calculate how many blocks for each species
+        int animalBlocks = (int) Math.round((double) animalCount / total * width);
+        int monsterBlocks = width - animalBlocks; // Remaining goes to monsters
+        
+        // Add animal blocks (green)
+        for (int i = 0; i < animalBlocks; i++) {
+            out.append(BRIGHT_GREEN).append("█").append(RESET);
+        }
+        
+        // Add monster blocks (red)
+        for (int i = 0; i < monsterBlocks; i++) {
+            out.append(BRIGHT_RED).append("█").append(RESET);
+        }
+    }
+}